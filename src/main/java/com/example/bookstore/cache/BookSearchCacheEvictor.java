@@ -0,0 +1,43 @@
+package com.example.bookstore.cache;
+
+import com.example.bookstore.event.BookDeletedEvent;
+import com.example.bookstore.event.BookSavedEvent;
+import com.example.bookstore.event.CategoryChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Clears cached search results once a book or category change has committed.
+ * Clearing inside the writing transaction would let a concurrent search put
+ * the old result back before the commit, where it would stay until expiry.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookSearchCacheEvictor {
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookSaved(BookSavedEvent event) {
+        clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        clear();
+    }
+
+    private void clear() {
+        Cache cache = cacheManager.getCache(CacheNames.BOOK_SEARCH);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
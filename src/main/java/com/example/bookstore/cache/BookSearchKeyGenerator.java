@@ -0,0 +1,68 @@
+package com.example.bookstore.cache;
+
+import com.example.bookstore.dto.book.BookSearchParametersDto;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds a canonical cache key for a book search, so that requests asking for
+ * the same result in a different spelling (reordered or repeated values,
+ * 20 vs 20.00) share one cache entry.
+ */
+@Component
+public class BookSearchKeyGenerator implements KeyGenerator {
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        BookSearchParametersDto searchParameters = (BookSearchParametersDto) params[0];
+        Pageable pageable = (Pageable) params[1];
+        return new Key(
+                canonical(searchParameters.getTitles()),
+                canonical(searchParameters.getAuthors()),
+                canonical(searchParameters.getFromPrice()),
+                canonical(searchParameters.getToPrice()),
+                canonical(searchParameters.getDescriptions()),
+                canonical(searchParameters.getCoverImages()),
+                canonical(searchParameters.getFuzzy()),
+                pageable.isPaged() ? pageable.getOffset() : -1,
+                pageable.isPaged() ? pageable.getPageSize() : -1,
+                pageable.getSort().toString());
+    }
+
+    private List<String> canonical(String[] values) {
+        if (values == null) {
+            return List.of();
+        }
+        return Arrays.stream(values)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private BigDecimal canonical(BigDecimal value) {
+        return value == null ? null : value.stripTrailingZeros();
+    }
+
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final List<String> titles;
+        private final List<String> authors;
+        private final BigDecimal fromPrice;
+        private final BigDecimal toPrice;
+        private final List<String> descriptions;
+        private final List<String> coverImages;
+        private final List<String> fuzzy;
+        private final long offset;
+        private final int size;
+        private final String sort;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.bookstore.cache;
+
+import com.example.bookstore.event.BookDeletedEvent;
+import com.example.bookstore.event.BookSavedEvent;
+import com.example.bookstore.event.CategoryChangedEvent;
+import com.example.bookstore.event.UserChangedEvent;
+import com.example.bookstore.model.CacheInvalidation;
+import com.example.bookstore.repository.book.BookRepository;
+import com.example.bookstore.repository.cacheinvalidation.CacheInvalidationRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the in-process caches of several nodes consistent without a broker.
+ * Every local book, category or user change appends a row to the
+ * cache_invalidation table in the writing transaction, and every node polls
+ * the table and replays the changes of other nodes as remote domain events,
+ * so indexes, snapshots and caches react exactly as they do to local writes.
+ * Remote events are never appended again. A poll only reads the rows above
+ * the highest id seen so far, so an idle poll reads nothing. Identity ids can
+ * commit out of order, so the ids skipped below that watermark are
+ * remembered as gaps and looked up again on every poll, until their row
+ * shows up or the gap timeout passes; a rolled back insert leaves a gap that
+ * never fills.
+ */
+@Component
+public class CacheInvalidationBus {
+    private static final int MAX_GAP = 1000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+    private final BookRepository bookRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final MissingEntityCache missingEntityCache;
+    private final UserPrincipalCacheEvictor userPrincipalCacheEvictor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Duration gapTimeout;
+    private final Duration retention;
+    private long watermark = -1;
+
+    public CacheInvalidationBus(CacheInvalidationRepository cacheInvalidationRepository,
+                                BookRepository bookRepository,
+                                EntityCacheEvictor entityCacheEvictor,
+                                MissingEntityCache missingEntityCache,
+                                UserPrincipalCacheEvictor userPrincipalCacheEvictor,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${cache.invalidation.enabled}") boolean enabled,
+                                @Value("${cache.invalidation.gap-timeout}") Duration gapTimeout,
+                                @Value("${cache.invalidation.retention}") Duration retention) {
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+        this.bookRepository = bookRepository;
+        this.entityCacheEvictor = entityCacheEvictor;
+        this.missingEntityCache = missingEntityCache;
+        this.userPrincipalCacheEvictor = userPrincipalCacheEvictor;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookSaved(BookSavedEvent event) {
+        if (!event.isRemote()) {
+            append(CacheInvalidation.EntityType.BOOK, event.getBook().getId().toString());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        if (!event.isRemote()) {
+            append(CacheInvalidation.EntityType.BOOK, event.getBookId().toString());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (!event.isRemote()) {
+            append(CacheInvalidation.EntityType.CATEGORY, event.getCategoryId().toString());
+        }
+    }
+
+    /**
+     * Users are written at flush time, which may be the commit itself, so the
+     * change is appended after the commit in a transaction of its own.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserChanged(UserChangedEvent event) {
+        append(CacheInvalidation.EntityType.USER, event.getEmail());
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.poll-interval}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        if (watermark < 0) {
+            watermark = cacheInvalidationRepository.findMaxId();
+            return;
+        }
+        if (!gaps.isEmpty()) {
+            recheckGaps();
+        }
+        for (CacheInvalidation invalidation
+                : cacheInvalidationRepository.findAllByIdGreaterThanOrderById(watermark)) {
+            rememberGap(watermark + 1, invalidation.getId());
+            applyIfRemote(invalidation);
+            watermark = invalidation.getId();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.cleanup-interval}")
+    public void deleteExpired() {
+        if (enabled) {
+            cacheInvalidationRepository.deleteAllCreatedBefore(
+                    LocalDateTime.now().minus(retention));
+        }
+    }
+
+    private void append(CacheInvalidation.EntityType entityType, String entityKey) {
+        if (!enabled) {
+            return;
+        }
+        CacheInvalidation invalidation = new CacheInvalidation();
+        invalidation.setEntityType(entityType);
+        invalidation.setEntityKey(entityKey);
+        invalidation.setNodeId(nodeId);
+        invalidation.setCreatedAt(LocalDateTime.now());
+        cacheInvalidationRepository.save(invalidation);
+    }
+
+    private void recheckGaps() {
+        for (CacheInvalidation invalidation
+                : cacheInvalidationRepository.findAllByIdIn(Set.copyOf(gaps.keySet()))) {
+            gaps.remove(invalidation.getId());
+            applyIfRemote(invalidation);
+        }
+        long expiredBefore = System.nanoTime() - gapTimeout.toNanos();
+        gaps.values().removeIf(noticedAt -> noticedAt - expiredBefore <= 0);
+    }
+
+    /**
+     * Remembers the ids from {@code fromId} up to, but not including,
+     * {@code toId}. A jump of more than {@value #MAX_GAP} ids is not a set of
+     * pending inserts but a jump of the auto-increment counter, and is not
+     * tracked.
+     */
+    private void rememberGap(long fromId, long toId) {
+        if (toId - fromId > MAX_GAP) {
+            return;
+        }
+        long noticedAt = System.nanoTime();
+        for (long id = fromId; id < toId; id++) {
+            gaps.put(id, noticedAt);
+        }
+    }
+
+    private void applyIfRemote(CacheInvalidation invalidation) {
+        if (!nodeId.equals(invalidation.getNodeId())) {
+            apply(invalidation);
+        }
+    }
+
+    private void apply(CacheInvalidation invalidation) {
+        switch (invalidation.getEntityType()) {
+            case BOOK:
+                applyBookChange(Long.valueOf(invalidation.getEntityKey()));
+                break;
+            case CATEGORY:
+                applyCategoryChange(Long.valueOf(invalidation.getEntityKey()));
+                break;
+            case USER:
+                userPrincipalCacheEvictor.evict(invalidation.getEntityKey());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void applyBookChange(Long bookId) {
+        entityCacheEvictor.evictBook(bookId);
+        missingEntityCache.forget(CacheNames.MISSING_BOOKS, bookId);
+        bookRepository.findWithCategoriesById(bookId).ifPresentOrElse(
+                book -> eventPublisher.publishEvent(new BookSavedEvent(book, true)),
+                () -> eventPublisher.publishEvent(new BookDeletedEvent(bookId, true)));
+    }
+
+    private void applyCategoryChange(Long categoryId) {
+        entityCacheEvictor.evictCategory(categoryId);
+        missingEntityCache.forget(CacheNames.MISSING_CATEGORIES, categoryId);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId, true));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.bookstore.cache;
+
+public final class CacheNames {
+    public static final String BOOK_SEARCH = "bookSearch";
+    public static final String USER_PRINCIPALS = "userPrincipals";
+    public static final String MISSING_BOOKS = "missingBooks";
+    public static final String MISSING_CATEGORIES = "missingCategories";
+
+    private CacheNames() {
+    }
+}
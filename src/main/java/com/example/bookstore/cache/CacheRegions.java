@@ -0,0 +1,11 @@
+package com.example.bookstore.cache;
+
+public final class CacheRegions {
+    public static final String BOOK = "book";
+    public static final String BOOK_CATEGORIES = "book-categories";
+    public static final String CATEGORY = "category";
+    public static final String ROLE = "role";
+
+    private CacheRegions() {
+    }
+}
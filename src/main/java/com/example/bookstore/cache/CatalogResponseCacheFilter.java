@@ -0,0 +1,175 @@
+package com.example.bookstore.cache;
+
+import com.example.bookstore.event.BookDeletedEvent;
+import com.example.bookstore.event.BookSavedEvent;
+import com.example.bookstore.event.CategoryChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Keeps the encoded bytes of successful catalog GET responses, so identical
+ * requests skip the controller and Jackson. Entries are keyed by path, query,
+ * Accept and whether the client accepts gzip, and are tagged with the
+ * {@link CatalogVersion} they were rendered at; an entry from an older catalog
+ * version is never served. The filter runs after Spring Security and only
+ * serves callers holding the role the catalog endpoints require.
+ */
+@Component
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+    private static final String CACHE_NAME = "catalogResponses";
+    private static final String REQUIRED_AUTHORITY = "ROLE_USER";
+    private static final String GZIP = "gzip";
+
+    private final CatalogVersion catalogVersion;
+    private final boolean enabled;
+    private final boolean gzipEnabled;
+    private final Cache<String, CachedResponse> responses;
+
+    public CatalogResponseCacheFilter(CatalogVersion catalogVersion,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${catalog.response-cache.enabled}") boolean enabled,
+                                      @Value("${catalog.response-cache.gzip}") boolean gzipEnabled,
+                                      @Value("${catalog.response-cache.max-bytes}") long maxBytes,
+                                      @Value("${catalog.response-cache.ttl}") Duration ttl) {
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+        this.gzipEnabled = gzipEnabled;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedResponse>weigher((key, response) -> response.body.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookSaved(BookSavedEvent event) {
+        responses.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        responses.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        responses.invalidateAll();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !HttpMethod.GET.matches(request.getMethod())
+                || request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.startsWith("/books") || path.startsWith("/categories"))
+                || path.startsWith("/books/search/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!isAuthorized()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean gzip = gzipEnabled && acceptsGzip(request);
+        String key = getKey(request, gzip);
+        String version = catalogVersion.current();
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null && cached.version.equals(version)) {
+            write(cached, response);
+            return;
+        }
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || request.isAsyncStarted()) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        byte[] body = wrapper.getContentAsByteArray();
+        CachedResponse rendered = new CachedResponse(version, wrapper.getContentType(),
+                wrapper.getHeader(HttpHeaders.ETAG), gzip ? compress(body) : body, gzip);
+        if (version.equals(catalogVersion.current())) {
+            responses.put(key, rendered);
+        }
+        wrapper.resetBuffer();
+        write(rendered, response);
+    }
+
+    private boolean isAuthorized() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                && authentication.getAuthorities().stream()
+                        .anyMatch(authority -> REQUIRED_AUTHORITY.equals(authority.getAuthority()));
+    }
+
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains(GZIP);
+    }
+
+    private String getKey(HttpServletRequest request, boolean gzip) {
+        return request.getRequestURI() + '?' + request.getQueryString()
+                + '|' + request.getHeader(HttpHeaders.ACCEPT)
+                + '|' + gzip;
+    }
+
+    private void write(CachedResponse cached, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType);
+        if (cached.entityTag != null) {
+            response.setHeader(HttpHeaders.ETAG, cached.entityTag);
+        }
+        if (gzipEnabled) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (cached.gzipped) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setContentLength(cached.body.length);
+        response.getOutputStream().write(cached.body);
+    }
+
+    private byte[] compress(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body);
+        }
+        return bytes.toByteArray();
+    }
+
+    @RequiredArgsConstructor
+    private static class CachedResponse {
+        private final String version;
+        private final String contentType;
+        private final String entityTag;
+        private final byte[] body;
+        private final boolean gzipped;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bookstore.cache;
+
+import com.example.bookstore.event.BookDeletedEvent;
+import com.example.bookstore.event.BookSavedEvent;
+import com.example.bookstore.event.CategoryChangedEvent;
+import com.example.bookstore.repository.catalog.CatalogVersionRepository;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Catalog-wide change counter used as the entity tag of list endpoints. The
+ * counter lives in the catalog_version table and is incremented by the
+ * transaction that changes a book or a category, so every node derives the
+ * same tag from the same catalog. Each node keeps the last value it read and
+ * reads it again after a local commit, and after a change of another node is
+ * replayed by {@link CacheInvalidationBus}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogVersion {
+    private static final long UNKNOWN = -1;
+
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final AtomicLong version = new AtomicLong(UNKNOWN);
+
+    public String current() {
+        long current = version.get();
+        return Long.toString(current == UNKNOWN ? refresh() : current);
+    }
+
+    @EventListener
+    public void onBookSaved(BookSavedEvent event) {
+        onCatalogChanged(event.isRemote());
+    }
+
+    @EventListener
+    public void onBookDeleted(BookDeletedEvent event) {
+        onCatalogChanged(event.isRemote());
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        onCatalogChanged(event.isRemote());
+    }
+
+    /**
+     * Increments the counter just before the writing transaction commits, so
+     * the row is locked only briefly, and reads it back once it has. Changes
+     * made without a transaction do both right away, in that order.
+     */
+    private void onCatalogChanged(boolean remote) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!remote) {
+                catalogVersionRepository.increment();
+            }
+            refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        if (!remote) {
+                            catalogVersionRepository.increment();
+                        }
+                    }
+
+                    @Override
+                    public void afterCommit() {
+                        refresh();
+                    }
+                });
+    }
+
+    /**
+     * Reads that overlap may finish in any order; the counter only grows, so
+     * the highest value read is the current one.
+     */
+    private long refresh() {
+        long read = catalogVersionRepository.find();
+        return version.accumulateAndGet(read, Math::max);
+    }
+}
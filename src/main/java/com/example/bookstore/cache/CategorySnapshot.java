@@ -0,0 +1,95 @@
+package com.example.bookstore.cache;
+
+import com.example.bookstore.dto.category.CategoryDto;
+import com.example.bookstore.dto.category.VersionedCategoryDto;
+import com.example.bookstore.event.CategoryChangedEvent;
+import com.example.bookstore.repository.category.CategoryRepository;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Immutable in-memory copy of all categories and their versions, already
+ * mapped to DTOs. Readers
+ * only dereference the current snapshot; every committed category change
+ * reloads the table and swaps in a new snapshot. Until the first load, or when
+ * disabled, {@link #isLoaded()} is false and callers read from the database.
+ */
+@Component
+public class CategorySnapshot {
+    private final CategoryRepository categoryRepository;
+    private final boolean enabled;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    public CategorySnapshot(CategoryRepository categoryRepository,
+                            @Value("${category.snapshot.enabled}") boolean enabled) {
+        this.categoryRepository = categoryRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isLoaded() {
+        return current.get() != null;
+    }
+
+    public List<CategoryDto> findAll(Pageable pageable) {
+        List<CategoryDto> categories = current.get().categories;
+        if (pageable.isUnpaged()) {
+            return categories;
+        }
+        int from = (int) Math.min(pageable.getOffset(), categories.size());
+        int to = (int) Math.min((long) from + pageable.getPageSize(), categories.size());
+        return categories.subList(from, to);
+    }
+
+    public Optional<CategoryDto> findById(Long id) {
+        return findVersionedById(id).map(VersionedCategoryDto::getCategory);
+    }
+
+    /**
+     * Returns the category together with the version it was loaded at, so
+     * that an entity tag and the body it describes come from one snapshot.
+     */
+    public Optional<VersionedCategoryDto> findVersionedById(Long id) {
+        return Optional.ofNullable(current.get().categoriesById.get(id));
+    }
+
+    /**
+     * Reloads run one at a time, so a reload that read the table before a
+     * later commit can never swap in its snapshot after that commit's reload.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        if (!enabled) {
+            return;
+        }
+        List<VersionedCategoryDto> versioned = categoryRepository.findAllVersionedBy().stream()
+                .sorted(Comparator.comparing(category -> category.getCategory().getId()))
+                .toList();
+        current.set(new Snapshot(
+                versioned.stream().map(VersionedCategoryDto::getCategory).toList(),
+                versioned.stream().collect(Collectors.toUnmodifiableMap(
+                        category -> category.getCategory().getId(), Function.identity()))));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        reload();
+    }
+
+    @RequiredArgsConstructor
+    private static class Snapshot {
+        private final List<CategoryDto> categories;
+        private final Map<Long, VersionedCategoryDto> categoriesById;
+    }
+}
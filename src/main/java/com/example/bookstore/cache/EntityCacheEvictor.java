@@ -0,0 +1,39 @@
+package com.example.bookstore.cache;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.Category;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts second-level cache data that Hibernate cannot invalidate by itself,
+ * such as cached collections that still reference a soft-deleted entity, or
+ * entities that were changed by another node.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheEvictor {
+    private static final String BOOK_CATEGORIES_ROLE = Book.class.getName() + ".categories";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictBookCategories() {
+        getCache().evictCollectionData(BOOK_CATEGORIES_ROLE);
+    }
+
+    public void evictBook(Long id) {
+        getCache().evictEntityData(Book.class, id);
+        getCache().evictCollectionData(BOOK_CATEGORIES_ROLE, id);
+    }
+
+    public void evictCategory(Long id) {
+        getCache().evictEntityData(Category.class, id);
+        evictBookCategories();
+    }
+
+    private Cache getCache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+}
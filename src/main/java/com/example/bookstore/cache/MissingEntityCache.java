@@ -0,0 +1,61 @@
+package com.example.bookstore.cache;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.Category;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Short-lived record of ids that were looked up and not found, so repeated
+ * requests for deleted or never-existing entities skip the database. As an
+ * entity listener it forgets an id as soon as an entity with that id is
+ * inserted, and again after commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class MissingEntityCache {
+    private final CacheManager cacheManager;
+
+    public boolean isMissing(String cacheName, Long id) {
+        Cache cache = cacheManager.getCache(cacheName);
+        return cache != null && cache.get(id) != null;
+    }
+
+    public void markMissing(String cacheName, Long id) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.put(id, Boolean.TRUE);
+        }
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        if (entity instanceof Book) {
+            forget(CacheNames.MISSING_BOOKS, ((Book) entity).getId());
+        } else if (entity instanceof Category) {
+            forget(CacheNames.MISSING_CATEGORIES, ((Category) entity).getId());
+        }
+    }
+
+    public void forget(String cacheName, Long id) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        cache.evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            cache.evict(id);
+                        }
+                    });
+        }
+    }
+}
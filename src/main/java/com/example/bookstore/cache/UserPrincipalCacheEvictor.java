@@ -0,0 +1,53 @@
+package com.example.bookstore.cache;
+
+import com.example.bookstore.event.UserChangedEvent;
+import com.example.bookstore.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Drops cached principals whenever a user row is inserted, updated or soft
+ * deleted. Eviction is repeated after commit, so a concurrent request cannot
+ * put the pre-commit state back into the cache. Role grants only touch the
+ * users_roles join table, so code that changes them must call
+ * {@link #evict(String)} itself.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalCacheEvictor {
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        evict(user.getEmail());
+        eventPublisher.publishEvent(new UserChangedEvent(user.getEmail()));
+    }
+
+    public void evict(String email) {
+        Cache cache = cacheManager.getCache(CacheNames.USER_PRINCIPALS);
+        if (cache == null) {
+            return;
+        }
+        cache.evict(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            cache.evict(email);
+                        }
+                    });
+        }
+    }
+}
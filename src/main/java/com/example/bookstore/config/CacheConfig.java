@@ -0,0 +1,31 @@
+package com.example.bookstore.config;
+
+import com.example.bookstore.cache.CacheNames;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@EnableCaching
+@Configuration
+public class CacheConfig {
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> caffeineCacheManagerCustomizer(
+            @Value("${cache.book-search.spec}") String bookSearchSpec,
+            @Value("${cache.user-principals.spec}") String userPrincipalsSpec,
+            @Value("${cache.missing-entities.spec}") String missingEntitiesSpec) {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(CacheNames.BOOK_SEARCH,
+                    Caffeine.from(bookSearchSpec).recordStats().build());
+            cacheManager.registerCustomCache(CacheNames.USER_PRINCIPALS,
+                    Caffeine.from(userPrincipalsSpec).recordStats().build());
+            cacheManager.registerCustomCache(CacheNames.MISSING_BOOKS,
+                    Caffeine.from(missingEntitiesSpec).recordStats().build());
+            cacheManager.registerCustomCache(CacheNames.MISSING_CATEGORIES,
+                    Caffeine.from(missingEntitiesSpec).recordStats().build());
+        };
+    }
+}
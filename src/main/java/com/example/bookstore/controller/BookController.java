@@ -2,33 +2,48 @@ package com.example.bookstore.controller;
 
 import com.example.bookstore.dto.book.BookDto;
 import com.example.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.example.bookstore.dto.book.BookFacetsDto;
 import com.example.bookstore.dto.book.BookSearchParametersDto;
 import com.example.bookstore.dto.book.CreateBookRequestDto;
+import com.example.bookstore.dto.book.StockAdjustmentRequestDto;
+import com.example.bookstore.dto.page.CursorPageDto;
+import com.example.bookstore.exception.EntityNotFoundException;
 import com.example.bookstore.service.book.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Book management", description = "Endpoints for managing books")
 @RequiredArgsConstructor
 @RequestMapping(value = "/books")
 @RestController
 public class BookController {
+    private static final String NDJSON = "application/x-ndjson";
     private final BookService bookService;
+    private final ObjectMapper objectMapper;
 
     @ResponseStatus(HttpStatus.OK)
     @GetMapping
@@ -39,11 +54,27 @@ public class BookController {
     }
 
     @ResponseStatus(HttpStatus.OK)
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Get all books by cursor",
+            description = "Get a page of books after the given continuation token. "
+                    + "Pass an empty cursor to start; sort is one of id, title, price")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    public CursorPageDto<BookDtoWithoutCategoryIds> getAllByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "20") int size) {
+        return bookService.findAll(cursor, sort, size);
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Get a book by id", description = "Get a book by id")
+    @Operation(summary = "Get a book by id", description = "Get a book by id. "
+            + "Answers 304 when If-None-Match holds the current entity tag")
     @PreAuthorize("hasRole('ROLE_USER')")
-    public BookDto getBookById(@PathVariable Long id) {
-        return bookService.findById(id);
+    public ResponseEntity<BookDto> getBookById(@PathVariable Long id, WebRequest request) {
+        String entityTag = bookService.findVersionTagById(id)
+                .map(version -> "book-" + id + "-" + version)
+                .orElseThrow(() -> new EntityNotFoundException("Can`t get book by id:" + id));
+        return ConditionalResponses.withETag(request, entityTag, () -> bookService.findById(id));
     }
 
     @ResponseStatus(HttpStatus.CREATED)
@@ -63,6 +94,16 @@ public class BookController {
         return bookService.updateById(id, bookDto);
     }
 
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PatchMapping("/{id}/stock")
+    @Operation(summary = "Adjust the stock of a book", description = "Add units to the stock "
+            + "of a limited book, or remove them with a negative delta")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public void adjustStock(@PathVariable Long id,
+                            @RequestBody @Valid StockAdjustmentRequestDto requestDto) {
+        bookService.adjustStock(id, requestDto.getDelta());
+    }
+
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a book by id", description = "Delete a book by id")
@@ -76,7 +117,58 @@ public class BookController {
     @Operation(summary = "Search books by parameters",
             description = "Get a list of books by the entered parameters")
     @PreAuthorize("hasRole('ROLE_USER')")
-    public List<BookDto> search(BookSearchParametersDto searchParameters) {
-        return bookService.search(searchParameters);
+    public List<BookDto> search(BookSearchParametersDto searchParameters, Pageable pageable) {
+        return bookService.search(searchParameters, pageable);
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest titles and authors",
+            description = "Complete a title or author from the first letters of any of its words")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    public List<String> suggest(@RequestParam String prefix) {
+        return bookService.suggest(prefix);
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/search/facets")
+    @Operation(summary = "Get search facets",
+            description = "Count books matching the entered parameters "
+                    + "per category, per author and per price bucket")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    public BookFacetsDto getFacets(BookSearchParametersDto searchParameters) {
+        return bookService.getFacets(searchParameters);
+    }
+
+    @GetMapping(value = "/search/stream", produces = NDJSON)
+    @Operation(summary = "Stream books by parameters",
+            description = "Stream all books matching the entered parameters "
+                    + "as newline-delimited JSON, up to the server-side limit")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    public ResponseEntity<StreamingResponseBody> searchStream(
+            BookSearchParametersDto searchParameters) {
+        StreamingResponseBody body = outputStream ->
+                bookService.streamSearch(searchParameters, book -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(book));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/search", params = "q")
+    @Operation(summary = "Full-text search",
+            description = "Get a page of books ranked by how well their title, author "
+                    + "and description match the query")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    public List<BookDtoWithoutCategoryIds> searchByText(@RequestParam("q") String query,
+                                                        Pageable pageable) {
+        return bookService.searchByText(query, pageable);
     }
 }
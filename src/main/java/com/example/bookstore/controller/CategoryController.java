@@ -1,8 +1,13 @@
 package com.example.bookstore.controller;
 
+import com.example.bookstore.cache.CatalogVersion;
 import com.example.bookstore.dto.book.BookDtoWithoutCategoryIds;
 import com.example.bookstore.dto.category.CategoryDto;
+import com.example.bookstore.dto.category.CategoryFilterDto;
 import com.example.bookstore.dto.category.CreateCategoryRequestDto;
+import com.example.bookstore.dto.category.VersionedCategoryDto;
+import com.example.bookstore.dto.page.CursorPageDto;
+import com.example.bookstore.exception.EntityNotFoundException;
 import com.example.bookstore.service.book.BookService;
 import com.example.bookstore.service.category.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,6 +17,7 @@ import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,8 +26,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RequiredArgsConstructor
 @Tag(name = "Category management", description = "Endpoints for managing categories")
@@ -30,6 +38,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class CategoryController {
     private final CategoryService categoryService;
     private final BookService bookService;
+    private final CatalogVersion catalogVersion;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
@@ -39,20 +48,29 @@ public class CategoryController {
         return categoryService.save(categoryDto);
     }
 
-    @ResponseStatus(HttpStatus.OK)
     @GetMapping
-    @Operation(summary = "Get all categories", description = "Get a list of all categories")
+    @Operation(summary = "Get all categories", description = "Get a list of all categories. "
+            + "Answers 304 when If-None-Match holds the current catalog entity tag")
     @PreAuthorize("hasRole('ROLE_USER')")
-    public List<CategoryDto> getAll(Pageable pageable) {
-        return categoryService.findAll(pageable);
+    public ResponseEntity<List<CategoryDto>> getAll(Pageable pageable, WebRequest request) {
+        return ConditionalResponses.withETag(request, "catalog-" + catalogVersion.current(),
+                () -> categoryService.findAll(pageable));
     }
 
-    @ResponseStatus(HttpStatus.OK)
     @GetMapping("/{id}")
-    @Operation(summary = "Get a category by id", description = "Get a category by id")
+    @Operation(summary = "Get a category by id", description = "Get a category by id. "
+            + "Answers 304 when If-None-Match holds the current entity tag")
     @PreAuthorize("hasRole('ROLE_USER')")
-    public CategoryDto getCategoryById(@PathVariable Long id) {
-        return categoryService.getById(id);
+    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id,
+                                                       WebRequest request) {
+        VersionedCategoryDto versioned = categoryService.findVersionedById(id)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Can not found Category by id = " + id));
+        return ConditionalResponses.withETag(request,
+                "category-" + id + "-" + versioned.getVersion(),
+                () -> versioned.getCategory() != null
+                        ? versioned.getCategory()
+                        : categoryService.getById(id));
     }
 
     @ResponseStatus(HttpStatus.OK)
@@ -73,12 +91,38 @@ public class CategoryController {
     }
 
     @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/books")
+    @Operation(summary = "Get books by several categories",
+            description = "Retrieve books that belong to all categories of 'all', to at least "
+                    + "one category of 'any' and to none of the categories of 'none'")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    public List<BookDtoWithoutCategoryIds> getBooksByCategories(CategoryFilterDto filter,
+                                                                Pageable pageable) {
+        return bookService.findAllByCategories(filter, pageable);
+    }
+
     @GetMapping("/{id}/books")
     @Operation(summary = "Get books by category id",
-            description = "Retrieve books by a specific category")
+            description = "Retrieve books by a specific category. "
+                    + "Answers 304 when If-None-Match holds the current catalog entity tag")
     @PreAuthorize("hasRole('ROLE_USER')")
-    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(@PathVariable Long id,
-                                                                Pageable pageable) {
-        return bookService.findAllByCategoryId(id, pageable);
+    public ResponseEntity<List<BookDtoWithoutCategoryIds>> getBooksByCategoryId(
+            @PathVariable Long id, Pageable pageable, WebRequest request) {
+        return ConditionalResponses.withETag(request, "catalog-" + catalogVersion.current(),
+                () -> bookService.findAllByCategoryId(id, pageable));
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/{id}/books", params = "cursor")
+    @Operation(summary = "Get books by category id by cursor",
+            description = "Retrieve a page of books of a specific category after the given "
+                    + "continuation token. Pass an empty cursor to start")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    public CursorPageDto<BookDtoWithoutCategoryIds> getBooksByCategoryIdByCursor(
+            @PathVariable Long id,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "20") int size) {
+        return bookService.findAllByCategoryId(id, cursor, sort, size);
     }
 }
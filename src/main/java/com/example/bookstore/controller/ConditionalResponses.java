@@ -0,0 +1,23 @@
+package com.example.bookstore.controller;
+
+import java.util.function.Supplier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+final class ConditionalResponses {
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Answers 304 Not Modified when the request's If-None-Match matches the
+     * entity tag, without producing the body. Otherwise returns the body with
+     * the entity tag set.
+     */
+    static <T> ResponseEntity<T> withETag(WebRequest request, String entityTag, Supplier<T> body) {
+        if (request.checkNotModified(entityTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(body.get());
+    }
+}
@@ -5,14 +5,17 @@ import com.example.bookstore.dto.order.OrderResponseDto;
 import com.example.bookstore.dto.order.OrderUpdateRequestDto;
 import com.example.bookstore.dto.orderitem.OrderItemDto;
 import com.example.bookstore.model.User;
+import com.example.bookstore.service.order.OrderPlacementQueue;
 import com.example.bookstore.service.order.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,26 +23,56 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RequiredArgsConstructor
 @Tag(name = "Order management", description = "Endpoints for managing order")
 @RequestMapping(value = "/orders")
 @RestController
 public class OrderController {
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final OrderService orderService;
+    private final OrderPlacementQueue orderPlacementQueue;
 
     @PostMapping
-    @Operation(summary = "Place an order", description = "Place an order")
+    @Operation(summary = "Place an order",
+            description = "Place an order. With 'Prefer: respond-async' the order is "
+                    + "accepted with status PROCESSING and placed in the background")
     @PreAuthorize("hasRole('ROLE_USER')")
-    public OrderResponseDto createOrder(
+    public ResponseEntity<OrderResponseDto> createOrder(
             Authentication authentication,
+            @RequestHeader(value = PREFER, required = false) String prefer,
             @Valid @RequestBody OrderCreateRequestDto orderCreateRequestDto
     ) {
         User user = (User) authentication.getPrincipal();
-        return orderService.createOrder(user.getId(), orderCreateRequestDto);
+        if (!prefersAsync(prefer)) {
+            return ResponseEntity.ok(
+                    orderService.createOrder(user.getId(), orderCreateRequestDto));
+        }
+        OrderResponseDto order =
+                orderPlacementQueue.submit(user.getId(), orderCreateRequestDto);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                        .path("/{id}")
+                        .buildAndExpand(order.getId())
+                        .toUri())
+                .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                .body(order);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get order", description = "Retrieve an order and its status")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    public OrderResponseDto getOrder(Authentication authentication, @PathVariable Long id) {
+        User user = (User) authentication.getPrincipal();
+        return orderService.getOrderById(user.getId(), id);
     }
 
     @GetMapping
@@ -83,4 +116,10 @@ public class OrderController {
                         () -> new RuntimeException("Can`t get item by id:" + itemId)
                 );
     }
+
+    private boolean prefersAsync(String prefer) {
+        return prefer != null && Arrays.stream(prefer.split(","))
+                .map(String::trim)
+                .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
+    }
 }
@@ -0,0 +1,13 @@
+package com.example.bookstore.dto.book;
+
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+
+@Data
+public class BookFacetsDto {
+    private long total;
+    private Map<Long, Long> categories;
+    private Map<String, Long> authors;
+    private List<PriceBucketDto> prices;
+}
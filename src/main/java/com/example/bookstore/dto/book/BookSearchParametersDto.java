@@ -11,4 +11,5 @@ public class BookSearchParametersDto {
     private BigDecimal toPrice;
     private String[] descriptions;
     private String[] coverImages;
+    private String[] fuzzy;
 }
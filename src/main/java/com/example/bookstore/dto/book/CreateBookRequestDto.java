@@ -20,4 +20,6 @@ public class CreateBookRequestDto {
     private BigDecimal price;
     private String description;
     private String coverImage;
+    @Min(0)
+    private Integer stock;
 }
@@ -0,0 +1,11 @@
+package com.example.bookstore.dto.book;
+
+import java.math.BigDecimal;
+import lombok.Data;
+
+@Data
+public class PriceBucketDto {
+    private BigDecimal from;
+    private BigDecimal to;
+    private long count;
+}
@@ -0,0 +1,10 @@
+package com.example.bookstore.dto.book;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class StockAdjustmentRequestDto {
+    @NotNull
+    private Integer delta;
+}
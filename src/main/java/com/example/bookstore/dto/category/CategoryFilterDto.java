@@ -0,0 +1,10 @@
+package com.example.bookstore.dto.category;
+
+import lombok.Data;
+
+@Data
+public class CategoryFilterDto {
+    private Long[] all;
+    private Long[] any;
+    private Long[] none;
+}
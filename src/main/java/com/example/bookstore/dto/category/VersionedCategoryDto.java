@@ -0,0 +1,17 @@
+package com.example.bookstore.dto.category;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionedCategoryDto {
+    private Long version;
+    private CategoryDto category;
+
+    public VersionedCategoryDto(Long id, String name, String description, Long version) {
+        this(version, new CategoryDto(id, name, description));
+    }
+}
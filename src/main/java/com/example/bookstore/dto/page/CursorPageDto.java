@@ -0,0 +1,10 @@
+package com.example.bookstore.dto.page;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class CursorPageDto<T> {
+    private List<T> content;
+    private String nextCursor;
+}
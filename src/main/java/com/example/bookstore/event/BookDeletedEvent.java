@@ -0,0 +1,15 @@
+package com.example.bookstore.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class BookDeletedEvent {
+    private final Long bookId;
+    private final boolean remote;
+
+    public BookDeletedEvent(Long bookId) {
+        this(bookId, false);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.bookstore.event;
+
+import com.example.bookstore.model.Book;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class BookSavedEvent {
+    private final Book book;
+    private final boolean remote;
+
+    public BookSavedEvent(Book book) {
+        this(book, false);
+    }
+}
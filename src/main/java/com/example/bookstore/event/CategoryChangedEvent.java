@@ -0,0 +1,15 @@
+package com.example.bookstore.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class CategoryChangedEvent {
+    private final Long categoryId;
+    private final boolean remote;
+
+    public CategoryChangedEvent(Long categoryId) {
+        this(categoryId, false);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.bookstore.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class UserChangedEvent {
+    private final String email;
+}
@@ -0,0 +1,7 @@
+package com.example.bookstore.exception;
+
+public class OutOfStockException extends RuntimeException {
+    public OutOfStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.bookstore.idempotency;
+
+import com.example.bookstore.model.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Makes order placement and adding to the cart safe to retry. A POST carrying
+ * an Idempotency-Key runs at most once per user, path and key: a retry after
+ * success gets the stored response back with an Idempotent-Replayed header,
+ * and a retry while the first request is still running gets 409. Reusing a
+ * key with a different request body gets 422 instead of the response of the
+ * first request, so the body is read up front and handed on from memory.
+ * Only 2xx responses are stored; after an error the key is released, so the
+ * client can retry the same request. The filter runs after Spring Security, and
+ * requests without a user or without the header pass straight through.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final Set<String> PATHS = Set.of("/orders", "/cart");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final IdempotencyStore idempotencyStore;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY) == null
+                || !PATHS.contains(getPath(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        Long userId = getUserId();
+        if (userId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    IDEMPOTENCY_KEY + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        IdempotencyStore.Reservation reservation = idempotencyStore.reserve(
+                userId, getPath(request), idempotencyKey, cachedRequest.body);
+        if (reservation.isMismatched()) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), "This " + IDEMPOTENCY_KEY
+                    + " was already used with a different request body");
+            return;
+        }
+        if (reservation.getStoredResponse() != null) {
+            replay(reservation.getStoredResponse(), response);
+            return;
+        }
+        if (!reservation.isOwned()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpServletResponse.SC_CONFLICT,
+                    "A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+            return;
+        }
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(cachedRequest, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotencyStore.release(reservation);
+            throw e;
+        }
+        int status = wrapper.getStatus();
+        if (status >= 200 && status < 300 && !request.isAsyncStarted()) {
+            idempotencyStore.complete(reservation, new IdempotencyStore.StoredResponse(status,
+                    wrapper.getContentType(), wrapper.getHeader(HttpHeaders.LOCATION),
+                    new String(wrapper.getContentAsByteArray(), StandardCharsets.UTF_8)));
+        } else {
+            idempotencyStore.release(reservation);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(stored.getStatusCode());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        if (stored.getLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+        }
+        response.setHeader(IDEMPOTENT_REPLAYED, Boolean.TRUE.toString());
+        byte[] body = stored.getBody() == null
+                ? new byte[0]
+                : stored.getBody().getBytes(StandardCharsets.UTF_8);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private Long getUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            return null;
+        }
+        return ((User) authentication.getPrincipal()).getId();
+    }
+
+    private String getPath(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() == null
+                    ? StandardCharsets.UTF_8
+                    : Charset.forName(getCharacterEncoding());
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.bookstore.idempotency;
+
+import com.example.bookstore.model.IdempotencyRecord;
+import com.example.bookstore.repository.idempotency.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the responses of requests sent with an Idempotency-Key. The
+ * idempotency_keys table is the source of truth: a unique row per user, path
+ * and key is inserted before the request runs, so a concurrent retry on any
+ * node finds the key taken, and the response is written into the row once
+ * the request succeeds. The row also holds a SHA-256 digest of the request
+ * body, so a key reused with a different body is told apart from a retry.
+ * Completed responses are also kept in memory, so most retries are answered
+ * without a query. A reservation whose request never finished, for example
+ * because its node stopped, can be taken over once it is older than the lock
+ * timeout.
+ */
+@Component
+public class IdempotencyStore {
+    private static final String CACHE_NAME = "idempotentResponses";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Cache<String, StoredResponse> responses;
+    private final Duration retention;
+    private final Duration lockTimeout;
+
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${idempotency.retention}") Duration retention,
+                            @Value("${idempotency.lock-timeout}") Duration lockTimeout,
+                            @Value("${idempotency.cache.maximum-size}") long maximumSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.retention = retention;
+        this.lockTimeout = lockTimeout;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+    }
+
+    public Reservation reserve(Long userId, String requestPath, String idempotencyKey,
+                               byte[] requestBody) {
+        String requestHash = digest(requestBody);
+        String cacheKey = userId + "|" + requestPath + "|" + idempotencyKey + "|" + requestHash;
+        StoredResponse cached = responses.getIfPresent(cacheKey);
+        if (cached != null) {
+            return new Reservation(cacheKey, null, cached);
+        }
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setUserId(userId);
+        record.setRequestPath(requestPath);
+        record.setIdempotencyKey(idempotencyKey);
+        record.setRequestHash(requestHash);
+        record.setCreatedAt(LocalDateTime.now());
+        try {
+            return new Reservation(cacheKey,
+                    idempotencyRecordRepository.saveAndFlush(record).getId(), null);
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyRecord existing = idempotencyRecordRepository
+                    .findByUserIdAndRequestPathAndIdempotencyKey(
+                            userId, requestPath, idempotencyKey)
+                    .orElseThrow(() -> e);
+            if (!requestHash.equals(existing.getRequestHash())) {
+                return Reservation.MISMATCHED;
+            }
+            if (existing.isCompleted()) {
+                StoredResponse stored = new StoredResponse(existing.getStatusCode(),
+                        existing.getContentType(), existing.getLocation(),
+                        existing.getResponseBody());
+                responses.put(cacheKey, stored);
+                return new Reservation(cacheKey, null, stored);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (idempotencyRecordRepository.takeOverAbandoned(
+                    existing.getId(), now, now.minus(lockTimeout)) == 1) {
+                return new Reservation(cacheKey, existing.getId(), null);
+            }
+            return new Reservation(cacheKey, null, null);
+        }
+    }
+
+    public void complete(Reservation reservation, StoredResponse response) {
+        idempotencyRecordRepository.complete(reservation.recordId, response.getStatusCode(),
+                response.getContentType(), response.getLocation(), response.getBody());
+        responses.put(reservation.cacheKey, response);
+    }
+
+    public void release(Reservation reservation) {
+        idempotencyRecordRepository.deleteById(reservation.recordId);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval}")
+    public void deleteExpired() {
+        idempotencyRecordRepository.deleteAllCreatedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    private String digest(byte[] requestBody) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(requestBody);
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Reservation {
+        private static final Reservation MISMATCHED = new Reservation(null, null, null);
+
+        private final String cacheKey;
+        private final Long recordId;
+        @Getter
+        private final StoredResponse storedResponse;
+
+        /**
+         * Whether the caller holds the key and must run the request, then
+         * either complete or release the reservation.
+         */
+        public boolean isOwned() {
+            return recordId != null;
+        }
+
+        /**
+         * Whether the key was already used for a request with another body.
+         */
+        public boolean isMismatched() {
+            return this == MISMATCHED;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class StoredResponse {
+        private final int statusCode;
+        private final String contentType;
+        private final String location;
+        private final String body;
+    }
+}
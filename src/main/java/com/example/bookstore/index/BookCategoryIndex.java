@@ -0,0 +1,170 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.dto.category.CategoryFilterDto;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.Category;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compressed bitmap of book ids per category. Combined category filters are
+ * answered with bitmap AND, OR and AND NOT operations instead of joins.
+ */
+@Component
+public class BookCategoryIndex implements BookIndex {
+    private static final Roaring64Bitmap EMPTY = new Roaring64Bitmap();
+
+    private final Map<Long, Roaring64Bitmap> booksByCategoryId = new HashMap<>();
+    private final Map<Long, Set<Long>> categoryIdsByBookId = new HashMap<>();
+    private final Roaring64Bitmap allBooks = new Roaring64Bitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void rebuild(List<Book> books) {
+        lock.writeLock().lock();
+        try {
+            booksByCategoryId.clear();
+            categoryIdsByBookId.clear();
+            allBooks.clear();
+            books.forEach(this::addUnderLock);
+            booksByCategoryId.values().forEach(Roaring64Bitmap::runOptimize);
+            allBooks.runOptimize();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void add(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(book.getId());
+            addUnderLock(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the requested slice of ids, in ascending order, of books that
+     * belong to every category of {@code all}, to at least one category of
+     * {@code any} and to none of the categories of {@code none}. Empty
+     * groups do not restrict the result. The result starts from the first
+     * bitmap of {@code all} or from the union of {@code any}, so a request
+     * never copies the bitmap of every book unless it only excludes.
+     */
+    public List<Long> match(CategoryFilterDto filter, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = null;
+            if (filter.getAll() != null) {
+                for (Long categoryId : filter.getAll()) {
+                    result = result == null
+                            ? booksOf(categoryId)
+                            : Roaring64Bitmap.and(result, booksOf(categoryId));
+                }
+            }
+            if (filter.getAny() != null && filter.getAny().length > 0) {
+                Roaring64Bitmap anyOf = new Roaring64Bitmap();
+                for (Long categoryId : filter.getAny()) {
+                    anyOf.or(booksOf(categoryId));
+                }
+                result = result == null ? anyOf : Roaring64Bitmap.and(result, anyOf);
+            }
+            if (result == null) {
+                result = allBooks;
+            }
+            if (filter.getNone() != null) {
+                for (Long categoryId : filter.getNone()) {
+                    result = Roaring64Bitmap.andNot(result, booksOf(categoryId));
+                }
+            }
+            return slice(result, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            Roaring64Bitmap books = booksByCategoryId.remove(categoryId);
+            if (books == null) {
+                return;
+            }
+            books.forEach(bookId -> categoryIdsByBookId.computeIfPresent(bookId,
+                    (id, categoryIds) -> categoryIds.stream()
+                            .filter(otherId -> !otherId.equals(categoryId))
+                            .collect(Collectors.toUnmodifiableSet())));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Roaring64Bitmap booksOf(Long categoryId) {
+        return booksByCategoryId.getOrDefault(categoryId, EMPTY);
+    }
+
+    /**
+     * Jumps straight to the id at {@code offset} with select instead of
+     * walking the ids before it.
+     */
+    private List<Long> slice(Roaring64Bitmap bitmap, long offset, int limit) {
+        if (offset >= bitmap.getLongCardinality()) {
+            return List.of();
+        }
+        LongIterator iterator = bitmap.getLongIteratorFrom(bitmap.select(offset));
+        List<Long> ids = new ArrayList<>(limit);
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add(iterator.next());
+        }
+        return ids;
+    }
+
+    private void addUnderLock(Book book) {
+        Set<Long> categoryIds = book.getCategories().stream()
+                .map(Category::getId)
+                .collect(Collectors.toUnmodifiableSet());
+        for (Long categoryId : categoryIds) {
+            booksByCategoryId.computeIfAbsent(categoryId, id -> new Roaring64Bitmap())
+                    .addLong(book.getId());
+        }
+        categoryIdsByBookId.put(book.getId(), categoryIds);
+        allBooks.addLong(book.getId());
+    }
+
+    private void removeUnderLock(Long bookId) {
+        Set<Long> categoryIds = categoryIdsByBookId.remove(bookId);
+        if (categoryIds == null) {
+            return;
+        }
+        for (Long categoryId : categoryIds) {
+            Roaring64Bitmap books = booksByCategoryId.get(categoryId);
+            books.removeLong(bookId);
+            if (books.isEmpty()) {
+                booksByCategoryId.remove(categoryId);
+            }
+        }
+        allBooks.removeLong(bookId);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.dto.book.BookFacetsDto;
+import com.example.bookstore.dto.book.BookSearchParametersDto;
+import com.example.bookstore.dto.book.PriceBucketDto;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.Category;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Snapshot of the columns that search filters and facets look at. Facet
+ * counts for a search are computed in a single pass over the snapshot, using
+ * the same matching rules as the book specification providers. A rebuild
+ * fills a new map and swaps it in, so a facet request never sees a half
+ * built snapshot.
+ */
+@Component
+public class BookFacetIndex implements BookIndex {
+    private volatile Map<Long, Row> rows = new ConcurrentHashMap<>();
+    private final BookTrigramIndex bookTrigramIndex;
+    private final BigDecimal[] bucketBounds;
+
+    public BookFacetIndex(BookTrigramIndex bookTrigramIndex,
+                          @Value("${book.facets.price-buckets}") BigDecimal[] bucketBounds) {
+        this.bookTrigramIndex = bookTrigramIndex;
+        this.bucketBounds = bucketBounds.clone();
+        Arrays.sort(this.bucketBounds);
+    }
+
+    @Override
+    public synchronized void rebuild(List<Book> books) {
+        Map<Long, Row> newRows = new ConcurrentHashMap<>();
+        books.forEach(book -> newRows.put(book.getId(), toRow(book)));
+        rows = newRows;
+    }
+
+    @Override
+    public synchronized void add(Book book) {
+        rows.put(book.getId(), toRow(book));
+    }
+
+    @Override
+    public synchronized void remove(Long bookId) {
+        rows.remove(bookId);
+    }
+
+    @Override
+    public synchronized void removeCategory(Long categoryId) {
+        rows.replaceAll((bookId, row) -> row.categoryIds.contains(categoryId)
+                ? row.withoutCategory(categoryId)
+                : row);
+    }
+
+    public BookFacetsDto facets(BookSearchParametersDto searchParameters) {
+        Map<Long, Long> categories = new HashMap<>();
+        Map<String, Long> authors = new HashMap<>();
+        long[] bucketCounts = new long[bucketBounds.length + 1];
+        long total = 0;
+        Set<Long> fuzzyMatches = fuzzyMatches(searchParameters.getFuzzy());
+        for (Map.Entry<Long, Row> entry : rows.entrySet()) {
+            Row row = entry.getValue();
+            if (fuzzyMatches != null && !fuzzyMatches.contains(entry.getKey())
+                    || !row.matches(searchParameters)) {
+                continue;
+            }
+            total++;
+            authors.merge(row.author, 1L, Long::sum);
+            row.categoryIds.forEach(categoryId -> categories.merge(categoryId, 1L, Long::sum));
+            bucketCounts[bucketOf(row.price)]++;
+        }
+        BookFacetsDto facets = new BookFacetsDto();
+        facets.setTotal(total);
+        facets.setCategories(categories);
+        facets.setAuthors(authors);
+        facets.setPrices(toPriceBuckets(bucketCounts));
+        return facets;
+    }
+
+    private static Row toRow(Book book) {
+        Set<Long> categoryIds = book.getCategories().stream()
+                .map(Category::getId)
+                .collect(Collectors.toUnmodifiableSet());
+        return new Row(TextTokenizer.fold(book.getTitle()), book.getAuthor(),
+                TextTokenizer.fold(book.getAuthor()), book.getPrice(),
+                TextTokenizer.fold(book.getDescription()),
+                TextTokenizer.fold(book.getCoverImage()), categoryIds);
+    }
+
+    private Set<Long> fuzzyMatches(String[] fuzzy) {
+        if (fuzzy == null || fuzzy.length == 0) {
+            return null;
+        }
+        return new HashSet<>(bookTrigramIndex.match(fuzzy));
+    }
+
+    private int bucketOf(BigDecimal price) {
+        int bucket = 0;
+        while (bucket < bucketBounds.length && price.compareTo(bucketBounds[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private List<PriceBucketDto> toPriceBuckets(long[] bucketCounts) {
+        List<PriceBucketDto> buckets = new ArrayList<>(bucketCounts.length);
+        for (int i = 0; i < bucketCounts.length; i++) {
+            PriceBucketDto bucket = new PriceBucketDto();
+            bucket.setFrom(i == 0 ? null : bucketBounds[i - 1]);
+            bucket.setTo(i == bucketBounds.length ? null : bucketBounds[i]);
+            bucket.setCount(bucketCounts[i]);
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    @RequiredArgsConstructor
+    private static class Row {
+        private final String title;
+        private final String author;
+        private final String authorKey;
+        private final BigDecimal price;
+        private final String description;
+        private final String coverImage;
+        private final Set<Long> categoryIds;
+
+        private boolean matches(BookSearchParametersDto searchParameters) {
+            return isAnyOf(title, searchParameters.getTitles())
+                    && isAnyOf(authorKey, searchParameters.getAuthors())
+                    && (searchParameters.getFromPrice() == null
+                            || price.compareTo(searchParameters.getFromPrice()) > 0)
+                    && (searchParameters.getToPrice() == null
+                            || price.compareTo(searchParameters.getToPrice()) < 0)
+                    && isAnyOf(description, searchParameters.getDescriptions())
+                    && isAnyOf(coverImage, searchParameters.getCoverImages());
+        }
+
+        private Row withoutCategory(Long categoryId) {
+            return new Row(title, author, authorKey, price, description, coverImage,
+                    categoryIds.stream()
+                            .filter(id -> !id.equals(categoryId))
+                            .collect(Collectors.toUnmodifiableSet()));
+        }
+
+        /**
+         * Compares folded values, as the IN filter of the specification is
+         * evaluated under the table's case-insensitive collation.
+         */
+        private static boolean isAnyOf(String value, String[] allowed) {
+            return allowed == null || allowed.length == 0 || Arrays.stream(allowed)
+                    .anyMatch(candidate -> Objects.equals(value, TextTokenizer.fold(candidate)));
+        }
+    }
+}
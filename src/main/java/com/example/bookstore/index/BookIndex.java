@@ -0,0 +1,23 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.model.Book;
+import java.util.List;
+
+/**
+ * In-memory structure derived from the books table. Implementations are
+ * filled once at startup and then kept current by {@link BookIndexUpdater}.
+ */
+public interface BookIndex {
+    void rebuild(List<Book> books);
+
+    void add(Book book);
+
+    void remove(Long bookId);
+
+    /**
+     * Forgets a deleted category. Deleting a category leaves its books in
+     * place, so only indexes that hold category ids need to react.
+     */
+    default void removeCategory(Long categoryId) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.event.BookDeletedEvent;
+import com.example.bookstore.event.BookSavedEvent;
+import com.example.bookstore.event.CategoryChangedEvent;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.repository.book.BookRepository;
+import com.example.bookstore.repository.category.CategoryRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class BookIndexUpdater {
+    private final BookRepository bookRepository;
+    private final CategoryRepository categoryRepository;
+    private final List<BookIndex> bookIndexes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAll() {
+        List<Book> books = bookRepository.findAllWithCategoriesBy();
+        bookIndexes.forEach(index -> index.rebuild(books));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookSaved(BookSavedEvent event) {
+        bookIndexes.forEach(index -> index.add(event.getBook()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        bookIndexes.forEach(index -> index.remove(event.getBookId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (!categoryRepository.existsById(event.getCategoryId())) {
+            bookIndexes.forEach(index -> index.removeCategory(event.getCategoryId()));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.model.Book;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Book ids sorted by price in whole cents, kept in two primitive arrays. The
+ * arrays are replaced, never modified, on every write, so readers resolve a
+ * price band with two binary searches and no locking.
+ */
+@Component
+public class BookPriceIndex implements BookIndex {
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new long[0]);
+
+    @Override
+    public synchronized void rebuild(List<Book> books) {
+        long[][] entries = books.stream()
+                .map(book -> new long[]{toCents(book.getPrice()), book.getId()})
+                .sorted(Comparator.<long[]>comparingLong(entry -> entry[0])
+                        .thenComparingLong(entry -> entry[1]))
+                .toArray(long[][]::new);
+        long[] cents = new long[entries.length];
+        long[] ids = new long[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            cents[i] = entries[i][0];
+            ids[i] = entries[i][1];
+        }
+        snapshot = new Snapshot(cents, ids);
+    }
+
+    @Override
+    public synchronized void add(Book book) {
+        snapshot = snapshot.without(book.getId()).with(toCents(book.getPrice()), book.getId());
+    }
+
+    @Override
+    public synchronized void remove(Long bookId) {
+        snapshot = snapshot.without(bookId);
+    }
+
+    /**
+     * Returns ids of books priced strictly between the bounds, cheapest first
+     * and by id within a price. A null bound leaves that side open.
+     */
+    public List<Long> findIds(BigDecimal fromExclusive, BigDecimal toExclusive,
+                              long offset, int limit) {
+        Snapshot current = snapshot;
+        int from = fromExclusive == null ? 0 : current.firstAbove(
+                fromExclusive.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValue());
+        int to = toExclusive == null ? current.ids.length : current.firstAtLeast(
+                toExclusive.movePointRight(2).setScale(0, RoundingMode.CEILING).longValue());
+        long start = from + offset;
+        long end = Math.min(to, start + limit);
+        if (start >= end) {
+            return List.of();
+        }
+        return Arrays.stream(current.ids, (int) start, (int) end).boxed().toList();
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    @RequiredArgsConstructor
+    private static class Snapshot {
+        private final long[] cents;
+        private final long[] ids;
+
+        private Snapshot with(long price, long id) {
+            int position = firstAtLeast(price);
+            while (position < ids.length && cents[position] == price && ids[position] < id) {
+                position++;
+            }
+            long[] newCents = new long[cents.length + 1];
+            long[] newIds = new long[ids.length + 1];
+            System.arraycopy(cents, 0, newCents, 0, position);
+            System.arraycopy(ids, 0, newIds, 0, position);
+            newCents[position] = price;
+            newIds[position] = id;
+            System.arraycopy(cents, position, newCents, position + 1, cents.length - position);
+            System.arraycopy(ids, position, newIds, position + 1, ids.length - position);
+            return new Snapshot(newCents, newIds);
+        }
+
+        private Snapshot without(long id) {
+            int position = 0;
+            while (position < ids.length && ids[position] != id) {
+                position++;
+            }
+            if (position == ids.length) {
+                return this;
+            }
+            long[] newCents = new long[cents.length - 1];
+            long[] newIds = new long[ids.length - 1];
+            System.arraycopy(cents, 0, newCents, 0, position);
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(cents, position + 1, newCents, position, newCents.length - position);
+            System.arraycopy(ids, position + 1, newIds, position, newIds.length - position);
+            return new Snapshot(newCents, newIds);
+        }
+
+        private int firstAbove(long price) {
+            return firstAtLeast(price + 1);
+        }
+
+        private int firstAtLeast(long price) {
+            int low = 0;
+            int high = cents.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cents[middle] < price) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
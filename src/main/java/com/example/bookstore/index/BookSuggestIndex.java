@@ -0,0 +1,130 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.model.Book;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sorted prefix index over book titles and authors. Every phrase is stored
+ * under its normalized form and under each suffix that starts a word, so
+ * "tolk" completes "J. R. R. Tolkien". A lookup is a range scan over the
+ * keys that start with the prefix.
+ */
+@Component
+public class BookSuggestIndex implements BookIndex {
+    private final NavigableMap<String, Map<String, Integer>> suggestions = new TreeMap<>();
+    private final Map<Long, List<String>> phrasesByBookId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void rebuild(List<Book> books) {
+        lock.writeLock().lock();
+        try {
+            suggestions.clear();
+            phrasesByBookId.clear();
+            books.forEach(this::addUnderLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void add(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(book.getId());
+            addUnderLock(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        String normalized = TextTokenizer.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<String> matches = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            for (Map<String, Integer> phrases : suggestions
+                    .subMap(normalized, true, normalized + Character.MAX_VALUE, false)
+                    .values()) {
+                for (String phrase : phrases.keySet()) {
+                    matches.add(phrase);
+                    if (matches.size() == limit) {
+                        return List.copyOf(matches);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return List.copyOf(matches);
+    }
+
+    private void addUnderLock(Book book) {
+        List<String> phrases = new ArrayList<>(2);
+        addPhrase(phrases, book.getTitle());
+        addPhrase(phrases, book.getAuthor());
+        phrasesByBookId.put(book.getId(), phrases);
+    }
+
+    private void addPhrase(List<String> phrases, String phrase) {
+        if (phrase == null || phrase.isBlank()) {
+            return;
+        }
+        String display = phrase.trim();
+        phrases.add(display);
+        for (String key : keysOf(display)) {
+            suggestions.computeIfAbsent(key, k -> new TreeMap<>()).merge(display, 1, Integer::sum);
+        }
+    }
+
+    private void removeUnderLock(Long bookId) {
+        List<String> phrases = phrasesByBookId.remove(bookId);
+        if (phrases == null) {
+            return;
+        }
+        for (String display : phrases) {
+            for (String key : keysOf(display)) {
+                Map<String, Integer> displays = suggestions.get(key);
+                displays.computeIfPresent(display, (d, count) -> count == 1 ? null : count - 1);
+                if (displays.isEmpty()) {
+                    suggestions.remove(key);
+                }
+            }
+        }
+    }
+
+    private static Set<String> keysOf(String display) {
+        String normalized = TextTokenizer.normalize(display);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1));
+            if (wordStart && Character.isLetterOrDigit(normalized.charAt(i))) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.model.Book;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inverted index over book title, author and description. Every term maps to a
+ * posting list of book ids with a field-weighted term frequency, so a query is
+ * answered by merging a few posting lists instead of scanning the books table.
+ */
+@Component
+public class BookTextIndex implements BookIndex {
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> termsByBookId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void rebuild(List<Book> books) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByBookId.clear();
+            books.forEach(this::addUnderLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void add(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(book.getId());
+            addUnderLock(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the requested page of matches, best match first.
+     * Scores are a tf-idf sum over the distinct query terms; ties are broken
+     * by id so that pages stay stable between requests.
+     */
+    public List<Long> search(String query, Pageable pageable) {
+        Set<String> queryTerms = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = termsByBookId.size();
+            for (String term : queryTerms) {
+                Map<Long, Integer> postingList = postings.get(term);
+                if (postingList == null) {
+                    continue;
+                }
+                double idf = Math.log(1.0 + (double) documentCount / postingList.size());
+                postingList.forEach((bookId, frequency) ->
+                        scores.merge(bookId, frequency * idf, Double::sum));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .skip(pageable.isPaged() ? pageable.getOffset() : 0)
+                .limit(pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private void addUnderLock(Book book) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        countTerms(frequencies, book.getTitle(), TITLE_WEIGHT);
+        countTerms(frequencies, book.getAuthor(), AUTHOR_WEIGHT);
+        countTerms(frequencies, book.getDescription(), DESCRIPTION_WEIGHT);
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(book.getId(), frequency));
+        termsByBookId.put(book.getId(), frequencies.keySet());
+    }
+
+    private void removeUnderLock(Long bookId) {
+        Set<String> terms = termsByBookId.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> postingList = postings.get(term);
+            postingList.remove(bookId);
+            if (postingList.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private void countTerms(Map<String, Integer> frequencies, String text, int weight) {
+        TextTokenizer.tokenize(text).forEach(term -> frequencies.merge(term, weight, Integer::sum));
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.bookstore.index;
+
+import com.example.bookstore.model.Book;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+/**
+ * Character trigram index over the words of book titles and authors. A query
+ * word is looked up by its trigrams to collect candidate words, which are then
+ * verified by edit distance, so "tolkein" finds "tolkien" without a table scan.
+ */
+@Component
+public class BookTrigramIndex implements BookIndex {
+    private static final char PADDING = '$';
+
+    private final Map<String, Set<String>> wordsByTrigram = new HashMap<>();
+    private final Map<String, Set<Long>> booksByWord = new HashMap<>();
+    private final Map<Long, Set<String>> wordsByBookId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void rebuild(List<Book> books) {
+        lock.writeLock().lock();
+        try {
+            wordsByTrigram.clear();
+            booksByWord.clear();
+            wordsByBookId.clear();
+            books.forEach(this::addUnderLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void add(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(book.getId());
+            addUnderLock(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of books whose title or author contains every word of
+     * at least one of the queries within a small edit distance, closest match
+     * first. Other filters and the result cap are left to the caller.
+     */
+    public List<Long> match(String[] queries) {
+        Map<Long, Integer> distances = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String query : queries) {
+                matchQuery(query).forEach((bookId, distance) ->
+                        distances.merge(bookId, distance, Math::min));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return distances.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Map<Long, Integer> matchQuery(String query) {
+        Map<Long, Integer> bookDistances = null;
+        for (String queryWord : new HashSet<>(TextTokenizer.tokenize(query))) {
+            Map<Long, Integer> wordDistances = matchWord(queryWord);
+            if (bookDistances == null) {
+                bookDistances = wordDistances;
+            } else {
+                bookDistances.keySet().retainAll(wordDistances.keySet());
+                bookDistances.replaceAll((bookId, distance) ->
+                        distance + wordDistances.get(bookId));
+            }
+            if (bookDistances.isEmpty()) {
+                break;
+            }
+        }
+        return bookDistances == null ? Map.of() : bookDistances;
+    }
+
+    private Map<String, Integer> candidateWords(String queryWord) {
+        Map<String, Integer> sharedTrigrams = new HashMap<>();
+        for (String trigram : trigramsOf(queryWord)) {
+            for (String word : wordsByTrigram.getOrDefault(trigram, Set.of())) {
+                sharedTrigrams.merge(word, 1, Integer::sum);
+            }
+        }
+        return sharedTrigrams;
+    }
+
+    private Map<Long, Integer> matchWord(String queryWord) {
+        int maxDistance = maxDistance(queryWord);
+        Map<Long, Integer> bookDistances = new HashMap<>();
+        candidateWords(queryWord).forEach((word, shared) -> {
+            // every edit changes at most three trigrams of the padded word
+            if (shared < Math.max(queryWord.length(), word.length()) - 3 * maxDistance) {
+                return;
+            }
+            int distance = editDistance(queryWord, word, maxDistance);
+            if (distance <= maxDistance) {
+                booksByWord.get(word).forEach(bookId ->
+                        bookDistances.merge(bookId, distance, Math::min));
+            }
+        });
+        return bookDistances;
+    }
+
+    private void addUnderLock(Book book) {
+        Set<String> words = new HashSet<>(TextTokenizer.tokenize(book.getTitle()));
+        words.addAll(TextTokenizer.tokenize(book.getAuthor()));
+        for (String word : words) {
+            Set<Long> bookIds = booksByWord.get(word);
+            if (bookIds == null) {
+                bookIds = new HashSet<>();
+                booksByWord.put(word, bookIds);
+                for (String trigram : trigramsOf(word)) {
+                    wordsByTrigram.computeIfAbsent(trigram, t -> new HashSet<>()).add(word);
+                }
+            }
+            bookIds.add(book.getId());
+        }
+        wordsByBookId.put(book.getId(), words);
+    }
+
+    private void removeUnderLock(Long bookId) {
+        Set<String> words = wordsByBookId.remove(bookId);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Set<Long> bookIds = booksByWord.get(word);
+            bookIds.remove(bookId);
+            if (!bookIds.isEmpty()) {
+                continue;
+            }
+            booksByWord.remove(word);
+            for (String trigram : trigramsOf(word)) {
+                Set<String> trigramWords = wordsByTrigram.get(trigram);
+                trigramWords.remove(word);
+                if (trigramWords.isEmpty()) {
+                    wordsByTrigram.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static List<String> trigramsOf(String word) {
+        String padded = PADDING + word + PADDING;
+        List<String> trigrams = new ArrayList<>(padded.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        if (trigrams.isEmpty()) {
+            trigrams.add(padded);
+        }
+        return trigrams;
+    }
+
+    private static int maxDistance(String word) {
+        if (word.length() <= 2) {
+            return 0;
+        }
+        return word.length() <= 5 ? 1 : 2;
+    }
+
+    private static int editDistance(String first, String second, int maxDistance) {
+        if (Math.abs(first.length() - second.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= second.length(); j++) {
+                int substitution = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                        previous[j - 1] + substitution);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[second.length()];
+    }
+}
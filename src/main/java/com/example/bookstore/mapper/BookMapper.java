@@ -7,6 +7,7 @@ import com.example.bookstore.dto.book.CreateBookRequestDto;
 import com.example.bookstore.model.Book;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.Named;
 
@@ -16,6 +17,9 @@ public interface BookMapper {
 
     Book toEntity(CreateBookRequestDto requestDto);
 
+    @Mapping(target = "stock", ignore = true)
+    void updateBook(CreateBookRequestDto requestDto, @MappingTarget Book book);
+
     BookDtoWithoutCategoryIds toDtoWithoutCategories(Book book);
 
     @AfterMapping
@@ -5,10 +5,13 @@ import com.example.bookstore.dto.category.CategoryDto;
 import com.example.bookstore.dto.category.CreateCategoryRequestDto;
 import com.example.bookstore.model.Category;
 import org.mapstruct.Mapper;
+import org.mapstruct.MappingTarget;
 
 @Mapper(config = MapperConfig.class)
 public interface CategoryMapper {
     CategoryDto toDto(Category category);
 
     Category toEntity(CreateCategoryRequestDto categoryDto);
+
+    void updateCategory(CreateCategoryRequestDto categoryDto, @MappingTarget Category category);
 }
@@ -1,29 +1,44 @@
 package com.example.bookstore.model;
 
+import com.example.bookstore.cache.CacheRegions;
+import com.example.bookstore.cache.MissingEntityCache;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 @Getter
 @Setter
 @Entity
-@SQLDelete(sql = "UPDATE categories SET is_deleted = true WHERE id = ?")
+@EntityListeners(MissingEntityCache.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CATEGORY)
+@SQLDelete(sql = "UPDATE categories SET is_deleted = true WHERE id = ? AND version = ?")
 @Where(clause = "is_deleted = false")
 @Table(name = "categories")
 public class Category {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "categories_seq")
+    @GenericGenerator(name = "categories_seq", type = PooledIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM,
+                    value = "categories_seq"))
     private Long id;
     @Column(nullable = false)
     private String name;
     private String description;
     @Column(name = "is_deleted", nullable = false)
     private boolean isDeleted;
+    @Version
+    private Long version;
 }
@@ -1,11 +1,12 @@
 package com.example.bookstore.model;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -17,8 +18,11 @@ import java.util.HashSet;
 import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 @Getter
 @Setter
@@ -28,7 +32,10 @@ import org.hibernate.annotations.Where;
 @Table(name = "orders")
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "orders_seq")
+    @GenericGenerator(name = "orders_seq", type = PooledIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM,
+                    value = "orders_seq"))
     private Long id;
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
@@ -44,12 +51,18 @@ public class Order {
     private String shippingAddress;
     @OneToMany(mappedBy = "order")
     private Set<OrderItem> orderItems = new HashSet<>();
+    @ElementCollection
+    @CollectionTable(name = "orders_cart_items", joinColumns = @JoinColumn(name = "order_id"))
+    @Column(name = "cart_item_id")
+    private Set<Long> cartItemIds = new HashSet<>();
     @Column(name = "is_deleted", nullable = false)
     private boolean isDeleted;
 
     public enum Status {
+        PROCESSING,
         PENDING,
         DELIVERED,
-        COMPLETED
+        COMPLETED,
+        FAILED
     }
 }
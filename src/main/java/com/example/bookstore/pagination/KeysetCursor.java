@@ -0,0 +1,88 @@
+package com.example.bookstore.pagination;
+
+import com.example.bookstore.exception.InvalidCursorException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import lombok.Getter;
+
+/**
+ * Opaque continuation token for seek pagination. It remembers the sort key and
+ * the (sort value, id) pair of the last row that was returned, so the next
+ * page starts with a {@code WHERE (key, id) > (value, id)} range scan instead
+ * of skipping over all previous rows with an offset.
+ */
+@Getter
+public class KeysetCursor {
+    private static final String SEPARATOR = ":";
+
+    private final SortKey sortKey;
+    private final Long lastId;
+    private final String lastValue;
+
+    private KeysetCursor(SortKey sortKey, Long lastId, String lastValue) {
+        this.sortKey = sortKey;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public static KeysetCursor first(String sort) {
+        SortKey sortKey = SortKey.of(sort);
+        return new KeysetCursor(sortKey, 0L, sortKey.lowestValue);
+    }
+
+    public static KeysetCursor after(SortKey sortKey, Long lastId, Object lastValue) {
+        return new KeysetCursor(sortKey, lastId, String.valueOf(lastValue));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token),
+                    StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 3);
+            if (parts.length != 3) {
+                throw new InvalidCursorException("Malformed cursor: " + token);
+            }
+            KeysetCursor cursor = new KeysetCursor(
+                    SortKey.of(parts[0]), Long.valueOf(parts[1]), parts[2]);
+            if (cursor.sortKey == SortKey.PRICE) {
+                cursor.getLastPrice();
+            }
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = sortKey.name().toLowerCase(Locale.ROOT)
+                + SEPARATOR + lastId + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public BigDecimal getLastPrice() {
+        return new BigDecimal(lastValue);
+    }
+
+    public enum SortKey {
+        ID(""),
+        TITLE(""),
+        PRICE("-1");
+
+        private final String lowestValue;
+
+        SortKey(String lowestValue) {
+            this.lowestValue = lowestValue;
+        }
+
+        public static SortKey of(String sort) {
+            try {
+                return valueOf(sort.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidCursorException("Unsupported sort key: " + sort);
+            }
+        }
+    }
+}
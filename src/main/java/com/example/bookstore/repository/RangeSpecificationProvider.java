@@ -0,0 +1,9 @@
+package com.example.bookstore.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+public interface RangeSpecificationProvider<T, V extends Comparable<? super V>> {
+    String getKey();
+
+    Specification<T> getSpecification(V fromExclusive, V toExclusive);
+}
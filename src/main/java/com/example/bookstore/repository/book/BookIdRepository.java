@@ -0,0 +1,14 @@
+package com.example.bookstore.repository.book;
+
+import com.example.bookstore.model.Book;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BookIdRepository {
+    /**
+     * Reads only the ids of matching books, ordered by the sort and then by
+     * id. Unlike a paged findAll it loads no entities and runs no COUNT.
+     */
+    List<Long> findIds(Specification<Book> spec, Sort sort, long offset, int limit);
+}
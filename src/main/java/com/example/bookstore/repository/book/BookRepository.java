@@ -1,18 +1,92 @@
 package com.example.bookstore.repository.book;
 
+import com.example.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.example.bookstore.dto.book.BookPriceDto;
+import com.example.bookstore.dto.book.BookVersionDto;
 import com.example.bookstore.model.Book;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>,
+        BookIdRepository, BookStockRepository {
+    String SELECT_DTO_WITHOUT_CATEGORY_IDS = "SELECT new com.example.bookstore.dto.book"
+            + ".BookDtoWithoutCategoryIds(b.id, b.title, b.author, b.price, b.description, "
+            + "b.coverImage) ";
+
+    @EntityGraph(attributePaths = "categories")
+    Optional<Book> findWithCategoriesById(Long id);
+
+    @EntityGraph(attributePaths = "categories")
+    List<Book> findAllWithCategoriesBy();
+
+    /**
+     * Returns the version of the book once per live category, paired with
+     * that category's version, in category id order. A book without
+     * categories gives one row with a null category version, a missing book
+     * none.
+     */
+    @Query("SELECT new com.example.bookstore.dto.book.BookVersionDto(b.version, c.version) "
+            + "FROM Book b LEFT JOIN b.categories c ON c.isDeleted = false "
+            + "WHERE b.id = :id ORDER BY c.id")
+    List<BookVersionDto> findVersionsById(Long id);
+
+    @Query("SELECT new com.example.bookstore.dto.book.BookPriceDto(b.id, b.price, b.stock) "
+            + "FROM Book b WHERE b.id IN :ids")
+    List<BookPriceDto> findPricesByIdIn(Collection<Long> ids);
+
     @EntityGraph(attributePaths = "categories")
-    List<Book> findAll(Specification<Book> bookSpecification);
+    List<Book> findAllWithCategoriesByIdIn(Collection<Long> ids);
+
+    @Query(SELECT_DTO_WITHOUT_CATEGORY_IDS + "FROM Book b")
+    List<BookDtoWithoutCategoryIds> findAllWithoutCategoryIdsBy(Pageable pageable);
+
+    @Query(SELECT_DTO_WITHOUT_CATEGORY_IDS + "FROM Book b WHERE b.id IN :ids ORDER BY b.id")
+    List<BookDtoWithoutCategoryIds> findAllWithoutCategoryIdsByIdIn(Collection<Long> ids);
+
+    @Query(SELECT_DTO_WITHOUT_CATEGORY_IDS
+            + "FROM Book b JOIN b.categories c WHERE c.id = :categoryId")
+    List<BookDtoWithoutCategoryIds> findAllByCategoryId(Long categoryId, Pageable pageable);
+
+    @Query(SELECT_DTO_WITHOUT_CATEGORY_IDS
+            + "FROM Book b WHERE b.id > :lastId ORDER BY b.id")
+    List<BookDtoWithoutCategoryIds> findPageAfterId(Long lastId, Pageable pageable);
+
+    @Query(SELECT_DTO_WITHOUT_CATEGORY_IDS
+            + "FROM Book b WHERE b.title > :lastTitle "
+            + "OR (b.title = :lastTitle AND b.id > :lastId) ORDER BY b.title, b.id")
+    List<BookDtoWithoutCategoryIds> findPageAfterTitle(String lastTitle, Long lastId,
+                                                       Pageable pageable);
+
+    @Query(SELECT_DTO_WITHOUT_CATEGORY_IDS
+            + "FROM Book b WHERE b.price > :lastPrice "
+            + "OR (b.price = :lastPrice AND b.id > :lastId) ORDER BY b.price, b.id")
+    List<BookDtoWithoutCategoryIds> findPageAfterPrice(BigDecimal lastPrice, Long lastId,
+                                                       Pageable pageable);
+
+    @Query(SELECT_DTO_WITHOUT_CATEGORY_IDS
+            + "FROM Book b JOIN b.categories c WHERE c.id = :categoryId "
+            + "AND b.id > :lastId ORDER BY b.id")
+    List<BookDtoWithoutCategoryIds> findPageByCategoryIdAfterId(Long categoryId, Long lastId,
+                                                                Pageable pageable);
+
+    @Query(SELECT_DTO_WITHOUT_CATEGORY_IDS
+            + "FROM Book b JOIN b.categories c WHERE c.id = :categoryId "
+            + "AND (b.title > :lastTitle OR (b.title = :lastTitle AND b.id > :lastId)) "
+            + "ORDER BY b.title, b.id")
+    List<BookDtoWithoutCategoryIds> findPageByCategoryIdAfterTitle(
+            Long categoryId, String lastTitle, Long lastId, Pageable pageable);
 
-    @Query("FROM Book b JOIN b.categories c WHERE c.id = :categoryId")
-    List<Book> findAllByCategoryId(Long categoryId, Pageable pageable);
+    @Query(SELECT_DTO_WITHOUT_CATEGORY_IDS
+            + "FROM Book b JOIN b.categories c WHERE c.id = :categoryId "
+            + "AND (b.price > :lastPrice OR (b.price = :lastPrice AND b.id > :lastId)) "
+            + "ORDER BY b.price, b.id")
+    List<BookDtoWithoutCategoryIds> findPageByCategoryIdAfterPrice(
+            Long categoryId, BigDecimal lastPrice, Long lastId, Pageable pageable);
 }
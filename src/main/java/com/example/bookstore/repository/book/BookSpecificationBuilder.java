@@ -2,8 +2,11 @@ package com.example.bookstore.repository.book;
 
 import com.example.bookstore.dto.book.BookSearchParametersDto;
 import com.example.bookstore.model.Book;
+import com.example.bookstore.repository.RangeSpecificationProvider;
 import com.example.bookstore.repository.SpecificationBuilder;
 import com.example.bookstore.repository.SpecificationProviderManager;
+import java.math.BigDecimal;
+import java.util.Collection;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
@@ -12,7 +15,13 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class BookSpecificationBuilder implements SpecificationBuilder<Book> {
     private final SpecificationProviderManager<Book> bookSpecificationProviderManager;
+    private final RangeSpecificationProvider<Book, BigDecimal> priceRangeSpecificationProvider;
 
+    /**
+     * Applies every filter except the fuzzy one, which callers match once
+     * against the trigram index and walk in bounded chunks with
+     * {@link #buildAmongIds}.
+     */
     @Override
     public Specification<Book> build(BookSearchParametersDto searchParameters) {
         Specification<Book> spec = Specification.where(null);
@@ -26,17 +35,9 @@ public class BookSpecificationBuilder implements SpecificationBuilder<Book> {
                     .getSpecificationProvider("author")
                     .getSpecification(searchParameters.getAuthors()));
         }
-        if (searchParameters.getFromPrice() != null) {
-            String[] arrOfParameter = {String.valueOf(searchParameters.getFromPrice())};
-            spec = spec.and(bookSpecificationProviderManager
-                    .getSpecificationProvider("priceGreaterThan")
-                    .getSpecification(arrOfParameter));
-        }
-        if (searchParameters.getToPrice() != null) {
-            String[] arrOfParameter = {String.valueOf(searchParameters.getToPrice())};
-            spec = spec.and(bookSpecificationProviderManager
-                    .getSpecificationProvider("priceLessThan")
-                    .getSpecification(arrOfParameter));
+        if (searchParameters.getFromPrice() != null || searchParameters.getToPrice() != null) {
+            spec = spec.and(priceRangeSpecificationProvider.getSpecification(
+                    searchParameters.getFromPrice(), searchParameters.getToPrice()));
         }
         if (searchParameters.getDescriptions() != null
                 && searchParameters.getDescriptions().length > 0) {
@@ -52,4 +53,24 @@ public class BookSpecificationBuilder implements SpecificationBuilder<Book> {
         }
         return spec;
     }
+
+    public Specification<Book> buildAfterId(BookSearchParametersDto searchParameters,
+                                            Long lastId) {
+        String[] arrOfParameter = {String.valueOf(lastId)};
+        return build(searchParameters).and(bookSpecificationProviderManager
+                .getSpecificationProvider("idGreaterThan")
+                .getSpecification(arrOfParameter));
+    }
+
+    /**
+     * Applies the filters to the given books only, for callers that walk the
+     * fuzzy matches in their own order.
+     */
+    public Specification<Book> buildAmongIds(BookSearchParametersDto searchParameters,
+                                             Collection<Long> ids) {
+        String[] arrOfParameter = ids.stream().map(String::valueOf).toArray(String[]::new);
+        return build(searchParameters).and(bookSpecificationProviderManager
+                .getSpecificationProvider("idIn")
+                .getSpecification(arrOfParameter));
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.bookstore.repository.book;
+
+public interface BookStockRepository {
+    /**
+     * Takes the quantity off the stock of a limited book in one conditional
+     * UPDATE. Returns false when less is left, or when the book has no stock
+     * limit at all.
+     */
+    boolean takeStock(Long bookId, int quantity);
+
+    void returnStock(Long bookId, int quantity);
+
+    /**
+     * Adds the delta, which may be negative, to the stock of a limited book.
+     * Returns false when the book has no stock limit or the stock would drop
+     * below zero.
+     */
+    boolean adjustStock(Long bookId, int delta);
+}
@@ -0,0 +1,36 @@
+package com.example.bookstore.repository.book;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Changes stock with plain JDBC, so Hibernate does not treat the statements
+ * as bulk updates and evict every cached book on each order. Book.stock is
+ * never updated through the entity, so its cached value is not relied upon.
+ */
+@RequiredArgsConstructor
+public class BookStockRepositoryImpl implements BookStockRepository {
+    private static final String TAKE_STOCK =
+            "UPDATE books SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    private static final String RETURN_STOCK =
+            "UPDATE books SET stock = stock + ? WHERE id = ? AND stock IS NOT NULL";
+    private static final String ADJUST_STOCK = "UPDATE books SET stock = stock + ? "
+            + "WHERE id = ? AND stock IS NOT NULL AND stock + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean takeStock(Long bookId, int quantity) {
+        return jdbcTemplate.update(TAKE_STOCK, quantity, bookId, quantity) == 1;
+    }
+
+    @Override
+    public void returnStock(Long bookId, int quantity) {
+        jdbcTemplate.update(RETURN_STOCK, quantity, bookId);
+    }
+
+    @Override
+    public boolean adjustStock(Long bookId, int delta) {
+        return jdbcTemplate.update(ADJUST_STOCK, delta, bookId, delta) == 1;
+    }
+}
@@ -6,15 +6,15 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 @Component
-public class PriceSpecificationLessThanProvider implements SpecificationProvider<Book> {
+public class IdGreaterThanSpecificationProvider implements SpecificationProvider<Book> {
     @Override
     public String getKey() {
-        return "priceLessThan";
+        return "idGreaterThan";
     }
 
     @Override
     public Specification<Book> getSpecification(String[] params) {
         return (root, query, criteriaBuilder)
-                -> criteriaBuilder.lessThan(root.get("price"), params[0]);
+                -> criteriaBuilder.greaterThan(root.get("id"), Long.valueOf(params[0]));
     }
 }
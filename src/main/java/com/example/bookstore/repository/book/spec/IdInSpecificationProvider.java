@@ -2,19 +2,21 @@ package com.example.bookstore.repository.book.spec;
 
 import com.example.bookstore.model.Book;
 import com.example.bookstore.repository.SpecificationProvider;
+import java.util.Arrays;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 @Component
-public class PriceSpecificationGreaterThanProvider implements SpecificationProvider<Book> {
+public class IdInSpecificationProvider implements SpecificationProvider<Book> {
     @Override
     public String getKey() {
-        return "priceGreaterThan";
+        return "idIn";
     }
 
     @Override
     public Specification<Book> getSpecification(String[] params) {
-        return (root, query, criteriaBuilder)
-                -> criteriaBuilder.greaterThan(root.get("price"), params[0]);
+        return (root, query, criteriaBuilder) -> root.get("id").in(Arrays.stream(params)
+                .map(Long::valueOf)
+                .toList());
     }
 }
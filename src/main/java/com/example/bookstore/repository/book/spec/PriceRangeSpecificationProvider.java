@@ -0,0 +1,33 @@
+package com.example.bookstore.repository.book.spec;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.repository.RangeSpecificationProvider;
+import jakarta.persistence.criteria.Path;
+import java.math.BigDecimal;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PriceRangeSpecificationProvider
+        implements RangeSpecificationProvider<Book, BigDecimal> {
+    @Override
+    public String getKey() {
+        return "priceRange";
+    }
+
+    @Override
+    public Specification<Book> getSpecification(BigDecimal fromExclusive,
+                                                BigDecimal toExclusive) {
+        return (root, query, criteriaBuilder) -> {
+            Path<BigDecimal> price = root.get("price");
+            if (fromExclusive == null) {
+                return criteriaBuilder.lessThan(price, toExclusive);
+            }
+            if (toExclusive == null) {
+                return criteriaBuilder.greaterThan(price, fromExclusive);
+            }
+            return criteriaBuilder.and(criteriaBuilder.greaterThan(price, fromExclusive),
+                    criteriaBuilder.lessThan(price, toExclusive));
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bookstore.repository.cacheinvalidation;
+
+import com.example.bookstore.model.CacheInvalidation;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM CacheInvalidation c")
+    Long findMaxId();
+
+    List<CacheInvalidation> findAllByIdGreaterThanOrderById(Long id);
+
+    List<CacheInvalidation> findAllByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CacheInvalidation c WHERE c.createdAt < :createdAt")
+    int deleteAllCreatedBefore(LocalDateTime createdAt);
+}
@@ -1,7 +1,13 @@
 package com.example.bookstore.repository.cartitem;
 
 import com.example.bookstore.model.CartItem;
+import java.util.Collection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+    @Modifying
+    @Query("UPDATE CartItem c SET c.isDeleted = true WHERE c.id IN :ids")
+    void softDeleteAllByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,27 @@
+package com.example.bookstore.repository.catalog;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The one-row catalog_version table. Every transaction that changes a book
+ * or a category increments it, so all nodes read the same version.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogVersionRepository {
+    private static final String SELECT_VERSION = "SELECT version FROM catalog_version";
+    private static final String INCREMENT_VERSION =
+            "UPDATE catalog_version SET version = version + 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long find() {
+        return jdbcTemplate.queryForObject(SELECT_VERSION, Long.class);
+    }
+
+    public void increment() {
+        jdbcTemplate.update(INCREMENT_VERSION);
+    }
+}
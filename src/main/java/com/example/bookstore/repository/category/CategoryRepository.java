@@ -1,7 +1,23 @@
 package com.example.bookstore.repository.category;
 
+import com.example.bookstore.dto.category.CategoryDto;
+import com.example.bookstore.dto.category.VersionedCategoryDto;
 import com.example.bookstore.model.Category;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+    @Query("SELECT new com.example.bookstore.dto.category.CategoryDto(c.id, c.name, c.description) "
+            + "FROM Category c")
+    List<CategoryDto> findAllDtoBy(Pageable pageable);
+
+    @Query("SELECT new com.example.bookstore.dto.category.VersionedCategoryDto("
+            + "c.id, c.name, c.description, c.version) FROM Category c")
+    List<VersionedCategoryDto> findAllVersionedBy();
+
+    @Query("SELECT c.version FROM Category c WHERE c.id = :id")
+    Optional<Long> findVersionById(Long id);
 }
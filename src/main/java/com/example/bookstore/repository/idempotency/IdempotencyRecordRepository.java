@@ -0,0 +1,33 @@
+package com.example.bookstore.repository.idempotency;
+
+import com.example.bookstore.model.IdempotencyRecord;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByUserIdAndRequestPathAndIdempotencyKey(
+            Long userId, String requestPath, String idempotencyKey);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :createdAt "
+            + "WHERE r.id = :id AND r.statusCode IS NULL AND r.createdAt < :abandonedBefore")
+    int takeOverAbandoned(Long id, LocalDateTime createdAt, LocalDateTime abandonedBefore);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, "
+            + "r.contentType = :contentType, r.location = :location, "
+            + "r.responseBody = :responseBody WHERE r.id = :id")
+    int complete(Long id, Integer statusCode, String contentType, String location,
+                 String responseBody);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :createdAt")
+    int deleteAllCreatedBefore(LocalDateTime createdAt);
+}
@@ -1,15 +1,32 @@
 package com.example.bookstore.repository.order;
 
 import com.example.bookstore.model.Order;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     @EntityGraph(attributePaths = {"orderItems"})
     Optional<Order> findById(Long id);
 
+    @EntityGraph(attributePaths = {"orderItems"})
+    Optional<Order> findByIdAndUserId(Long id, Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findForUpdateById(Long id);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.orderDate < :orderDate "
+            + "ORDER BY o.id")
+    List<Long> findIdsByStatusAndOrderDateBefore(Order.Status status, LocalDateTime orderDate,
+                                                 Pageable pageable);
+
     @EntityGraph(attributePaths = {"orderItems"})
     List<Order> findAllByUserId(Long userId);
 }
@@ -0,0 +1,13 @@
+package com.example.bookstore.repository.orderitem;
+
+import com.example.bookstore.model.OrderItem;
+import java.util.List;
+
+public interface OrderItemBatchRepository {
+    /**
+     * Inserts all items with one JDBC batch and sets their generated ids. The
+     * order of every item must already be flushed, as the batch bypasses the
+     * persistence context.
+     */
+    void insertAll(List<OrderItem> orderItems);
+}
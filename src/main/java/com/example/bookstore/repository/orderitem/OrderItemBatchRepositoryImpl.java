@@ -0,0 +1,44 @@
+package com.example.bookstore.repository.orderitem;
+
+import com.example.bookstore.model.OrderItem;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+public class OrderItemBatchRepositoryImpl implements OrderItemBatchRepository {
+    private static final String INSERT_ORDER_ITEM = "INSERT INTO order_items "
+            + "(order_id, book_id, quantity, price, is_deleted) VALUES (?, ?, ?, ?, false)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<OrderItem> orderItems) {
+        if (orderItems.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    INSERT_ORDER_ITEM, Statement.RETURN_GENERATED_KEYS)) {
+                for (OrderItem orderItem : orderItems) {
+                    statement.setLong(1, orderItem.getOrder().getId());
+                    statement.setLong(2, orderItem.getBook().getId());
+                    statement.setInt(3, orderItem.getQuantity());
+                    statement.setBigDecimal(4, orderItem.getPrice());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (int i = 0; i < orderItems.size() && keys.next(); i++) {
+                        orderItems.get(i).setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -3,5 +3,6 @@ package com.example.bookstore.repository.orderitem;
 import com.example.bookstore.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long>,
+        OrderItemBatchRepository {
 }
@@ -2,6 +2,7 @@ package com.example.bookstore.security;
 
 import com.example.bookstore.dto.user.UserLoginRequestDto;
 import com.example.bookstore.dto.user.UserLoginResponseDto;
+import com.example.bookstore.model.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -20,7 +21,7 @@ public class AuthenticationService {
                         requestDto.getEmail(), requestDto.getPassword()
                 )
         );
-        String token = jwtUtil.generateToken(authentication.getName());
+        String token = jwtUtil.generateToken((User) authentication.getPrincipal());
         UserLoginResponseDto user = new UserLoginResponseDto();
         user.setToken(token);
         return user;
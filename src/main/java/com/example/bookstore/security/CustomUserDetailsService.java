@@ -1,8 +1,10 @@
 package com.example.bookstore.security;
 
+import com.example.bookstore.cache.CacheNames;
 import com.example.bookstore.exception.EntityNotFoundException;
 import com.example.bookstore.repository.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -14,6 +16,7 @@ public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
 
     @Override
+    @Cacheable(CacheNames.USER_PRINCIPALS)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByEmail(username)
                 .orElseThrow(() -> new EntityNotFoundException("Can`t find user by email")
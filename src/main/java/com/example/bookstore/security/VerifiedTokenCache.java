@@ -0,0 +1,75 @@
+package com.example.bookstore.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the claims of bearer tokens that already passed signature
+ * verification, keyed by a SHA-256 digest of the token so the raw token is not
+ * kept in memory. Every entry expires exactly when its token does. Invalid
+ * tokens throw from {@link JwtUtil#parseToken(String)} and are never cached.
+ */
+@Component
+public class VerifiedTokenCache {
+    private static final String CACHE_NAME = "verifiedTokens";
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, Claims> claimsByDigest;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.token-cache.maximum-size}") long maximumSize) {
+        this.jwtUtil = jwtUtil;
+        this.claimsByDigest = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiration())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, claimsByDigest, CACHE_NAME);
+    }
+
+    public Claims getClaims(String token) {
+        return claimsByDigest.get(digest(token), digest -> jwtUtil.parseToken(token));
+    }
+
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class UntilTokenExpiration implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+            long millisLeft = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, Claims claims,
+                                      long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String digest, Claims claims,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -2,9 +2,17 @@ package com.example.bookstore.service.book;
 
 import com.example.bookstore.dto.book.BookDto;
 import com.example.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.example.bookstore.dto.book.BookFacetsDto;
+import com.example.bookstore.dto.book.BookPriceDto;
 import com.example.bookstore.dto.book.BookSearchParametersDto;
 import com.example.bookstore.dto.book.CreateBookRequestDto;
+import com.example.bookstore.dto.category.CategoryFilterDto;
+import com.example.bookstore.dto.page.CursorPageDto;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import org.springframework.data.domain.Pageable;
 
 public interface BookService {
@@ -12,13 +20,46 @@ public interface BookService {
 
     BookDto findById(Long id);
 
+    /**
+     * Returns the version of the book followed by the versions of its
+     * categories, which BookDto embeds, so that renaming or deleting one of
+     * them changes the result as well.
+     */
+    Optional<String> findVersionTagById(Long id);
+
+    Map<Long, BookPriceDto> findPricesByIds(Collection<Long> ids);
+
     List<BookDtoWithoutCategoryIds> findAll(Pageable pageable);
 
+    CursorPageDto<BookDtoWithoutCategoryIds> findAll(String cursor, String sort, int size);
+
     BookDto updateById(Long id, CreateBookRequestDto requestDto);
 
     void deleteById(Long id);
 
-    List<BookDto> search(BookSearchParametersDto searchParameters);
+    /**
+     * Adds units to, or with a negative delta removes units from, the stock
+     * of a limited book, for example to restock it or to put back units a
+     * stopped node held in its StockAllocator.
+     */
+    void adjustStock(Long id, int delta);
+
+    List<BookDto> search(BookSearchParametersDto searchParameters, Pageable pageable);
+
+    List<String> suggest(String prefix);
+
+    BookFacetsDto getFacets(BookSearchParametersDto searchParameters);
+
+    void streamSearch(BookSearchParametersDto searchParameters,
+                      Consumer<BookDtoWithoutCategoryIds> consumer);
+
+    List<BookDtoWithoutCategoryIds> searchByText(String query, Pageable pageable);
 
     List<BookDtoWithoutCategoryIds> findAllByCategoryId(Long id, Pageable pageable);
+
+    CursorPageDto<BookDtoWithoutCategoryIds> findAllByCategoryId(
+            Long id, String cursor, String sort, int size);
+
+    List<BookDtoWithoutCategoryIds> findAllByCategories(CategoryFilterDto filter,
+                                                        Pageable pageable);
 }
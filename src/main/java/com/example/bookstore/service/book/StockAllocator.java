@@ -0,0 +1,202 @@
+package com.example.bookstore.service.book;
+
+import com.example.bookstore.exception.OutOfStockException;
+import com.example.bookstore.repository.book.BookRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reserves stock of limited books for orders. By default a reservation is one
+ * conditional UPDATE of the book row in the order transaction, so the row
+ * stays locked until the order commits and buyers of one title queue behind
+ * each other. With stock.allocator.enabled the node instead moves stock out
+ * of the row in chunks and hands it out from a few in-memory stripes; the row
+ * is then locked once per chunk rather than once per order.
+ * Chunks are taken by a single refill thread in transactions of its own, never
+ * by an order transaction, which already holds a pool connection and must not
+ * wait for a second one. An order that finds the stripes empty asks for a
+ * refill and takes what it is missing from the row in its own transaction.
+ * Units reserved by a transaction that rolls back go back to the stripes, and
+ * units still held on shutdown go back to the row. Units held by a node that
+ * dies are lost until an admin adds them back through
+ * {@link BookService#adjustStock}.
+ */
+@Component
+public class StockAllocator {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate refillTransaction;
+    private final ExecutorService refillExecutor;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int stripeCount;
+    private final ConcurrentMap<Long, Allocation> allocations = new ConcurrentHashMap<>();
+
+    public StockAllocator(BookRepository bookRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${stock.allocator.enabled}") boolean enabled,
+                          @Value("${stock.allocator.chunk-size}") int chunkSize,
+                          @Value("${stock.allocator.stripes}") int stripeCount) {
+        this.bookRepository = bookRepository;
+        this.refillTransaction = new TransactionTemplate(transactionManager);
+        this.refillTransaction.setPropagationBehavior(
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refillExecutor = Executors.newSingleThreadExecutor(
+                new CustomizableThreadFactory("stock-refill-"));
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.stripeCount = stripeCount;
+    }
+
+    public void reserve(Long bookId, int quantity) {
+        if (!enabled) {
+            if (!bookRepository.takeStock(bookId, quantity)) {
+                throw outOfStock(bookId);
+            }
+            return;
+        }
+        Allocation allocation =
+                allocations.computeIfAbsent(bookId, id -> new Allocation(stripeCount));
+        if (allocation.take(quantity)) {
+            returnOnRollback(allocation, quantity);
+            return;
+        }
+        requestRefill(bookId, allocation);
+        int held = allocation.drain();
+        if (held >= quantity) {
+            allocation.put(held - quantity);
+            returnOnRollback(allocation, quantity);
+            return;
+        }
+        if (!bookRepository.takeStock(bookId, quantity - held)) {
+            allocation.put(held);
+            throw outOfStock(bookId);
+        }
+        returnOnRollback(allocation, held);
+    }
+
+    @PreDestroy
+    public void returnUnsoldStock() throws InterruptedException {
+        refillExecutor.shutdown();
+        refillExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        allocations.forEach((bookId, allocation) -> {
+            int held = allocation.drain();
+            if (held > 0) {
+                refillTransaction.executeWithoutResult(
+                        status -> bookRepository.returnStock(bookId, held));
+            }
+        });
+    }
+
+    private void requestRefill(Long bookId, Allocation allocation) {
+        if (!allocation.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> refill(bookId, allocation));
+        } catch (RejectedExecutionException e) {
+            allocation.refilling.set(false);
+        }
+    }
+
+    private void refill(Long bookId, Allocation allocation) {
+        try {
+            if (Boolean.TRUE.equals(refillTransaction.execute(
+                    status -> bookRepository.takeStock(bookId, chunkSize)))) {
+                allocation.put(chunkSize);
+            }
+        } finally {
+            allocation.refilling.set(false);
+        }
+    }
+
+    /**
+     * Units taken from the stripes go back to them if the order rolls back;
+     * units taken from the row are restored by the rollback itself.
+     */
+    private void returnOnRollback(Allocation allocation, int quantity) {
+        if (quantity == 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            allocation.put(quantity);
+                        }
+                    }
+                });
+    }
+
+    private OutOfStockException outOfStock(Long bookId) {
+        return new OutOfStockException("Not enough stock of book by id:" + bookId);
+    }
+
+    /**
+     * Units of one book held by this node. They are spread over several
+     * counters, so concurrent buyers rarely retry the same compare-and-set.
+     */
+    private static class Allocation {
+        private final AtomicInteger[] stripes;
+        private final AtomicBoolean refilling = new AtomicBoolean();
+
+        Allocation(int stripeCount) {
+            stripes = new AtomicInteger[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new AtomicInteger();
+            }
+        }
+
+        boolean take(int quantity) {
+            int start = ThreadLocalRandom.current().nextInt(stripes.length);
+            for (int i = 0; i < stripes.length; i++) {
+                AtomicInteger stripe = stripes[(start + i) % stripes.length];
+                int available = stripe.get();
+                while (available >= quantity) {
+                    if (stripe.compareAndSet(available, available - quantity)) {
+                        return true;
+                    }
+                    available = stripe.get();
+                }
+            }
+            return false;
+        }
+
+        void put(int quantity) {
+            int share = quantity / stripes.length;
+            int start = ThreadLocalRandom.current().nextInt(stripes.length);
+            for (int i = 0; i < stripes.length; i++) {
+                int units = i == 0 ? share + quantity % stripes.length : share;
+                if (units > 0) {
+                    stripes[(start + i) % stripes.length].addAndGet(units);
+                }
+            }
+        }
+
+        int drain() {
+            int held = 0;
+            for (AtomicInteger stripe : stripes) {
+                held += stripe.getAndSet(0);
+            }
+            return held;
+        }
+    }
+}
@@ -1,20 +1,53 @@
 package com.example.bookstore.service.book.impl;
 
+import com.example.bookstore.cache.CacheNames;
+import com.example.bookstore.cache.MissingEntityCache;
+import com.example.bookstore.cache.SingleFlight;
 import com.example.bookstore.dto.book.BookDto;
 import com.example.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.example.bookstore.dto.book.BookFacetsDto;
+import com.example.bookstore.dto.book.BookPriceDto;
 import com.example.bookstore.dto.book.BookSearchParametersDto;
+import com.example.bookstore.dto.book.BookVersionDto;
 import com.example.bookstore.dto.book.CreateBookRequestDto;
+import com.example.bookstore.dto.category.CategoryFilterDto;
+import com.example.bookstore.dto.page.CursorPageDto;
+import com.example.bookstore.event.BookDeletedEvent;
+import com.example.bookstore.event.BookSavedEvent;
 import com.example.bookstore.exception.EntityNotFoundException;
+import com.example.bookstore.exception.OutOfStockException;
+import com.example.bookstore.index.BookCategoryIndex;
+import com.example.bookstore.index.BookFacetIndex;
+import com.example.bookstore.index.BookPriceIndex;
+import com.example.bookstore.index.BookSuggestIndex;
+import com.example.bookstore.index.BookTextIndex;
+import com.example.bookstore.index.BookTrigramIndex;
 import com.example.bookstore.mapper.BookMapper;
 import com.example.bookstore.model.Book;
+import com.example.bookstore.pagination.KeysetCursor;
 import com.example.bookstore.repository.book.BookRepository;
 import com.example.bookstore.repository.book.BookSpecificationBuilder;
 import com.example.bookstore.service.book.BookService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @RequiredArgsConstructor
 @Service
@@ -22,55 +55,360 @@ public class BookServiceImpl implements BookService {
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
     private final BookSpecificationBuilder bookSpecificationBuilder;
+    private final BookTextIndex bookTextIndex;
+    private final BookFacetIndex bookFacetIndex;
+    private final BookSuggestIndex bookSuggestIndex;
+    private final BookPriceIndex bookPriceIndex;
+    private final BookCategoryIndex bookCategoryIndex;
+    private final BookTrigramIndex bookTrigramIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MissingEntityCache missingEntityCache;
+    private final SingleFlight<Long, BookDto> bookLoads = new SingleFlight<>();
+    @Value("${book.page.max-size}")
+    private int maxPageSize;
+    @Value("${book.search.max-results}")
+    private long maxSearchResults;
+    @Value("${book.search.stream.chunk-size}")
+    private int streamChunkSize;
+    @Value("${book.search.stream.max-results}")
+    private long maxStreamResults;
+    @Value("${book.search.price-index.enabled}")
+    private boolean priceIndexEnabled;
+    @Value("${book.suggest.limit}")
+    private int suggestLimit;
+    @Value("${book.search.fuzzy.chunk-size}")
+    private int fuzzyChunkSize;
 
     @Override
     public BookDto save(CreateBookRequestDto requestDto) {
         Book book = bookMapper.toEntity(requestDto);
-        return bookMapper.toDto(bookRepository.save(book));
+        Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(new BookSavedEvent(savedBook));
+        return bookMapper.toDto(savedBook);
     }
 
     @Override
+    @Transactional
     public BookDto updateById(Long id, CreateBookRequestDto requestDto) {
-        Book dbBook = bookRepository.findById(id)
+        Book book = bookRepository.findWithCategoriesById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Can not found Book by id = " + id));
-        Book book = bookMapper.toEntity(requestDto);
-        book.setId(id);
-        return bookMapper.toDto(bookRepository.save(book));
+        bookMapper.updateBook(requestDto, book);
+        Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(new BookSavedEvent(savedBook));
+        return bookMapper.toDto(savedBook);
     }
 
     @Override
     public BookDto findById(Long id) {
-        Book book = bookRepository.findById(id).orElseThrow(
-                () -> new EntityNotFoundException("Can`t get book by id:" + id)
-        );
-        return bookMapper.toDto(book);
+        if (missingEntityCache.isMissing(CacheNames.MISSING_BOOKS, id)) {
+            throw new EntityNotFoundException("Can`t get book by id:" + id);
+        }
+        return bookLoads.load(id, () -> {
+            Optional<Book> book = bookRepository.findById(id);
+            if (book.isEmpty()) {
+                missingEntityCache.markMissing(CacheNames.MISSING_BOOKS, id);
+                throw new EntityNotFoundException("Can`t get book by id:" + id);
+            }
+            return bookMapper.toDto(book.get());
+        });
+    }
+
+    @Override
+    public Optional<String> findVersionTagById(Long id) {
+        if (missingEntityCache.isMissing(CacheNames.MISSING_BOOKS, id)) {
+            return Optional.empty();
+        }
+        List<BookVersionDto> versions = bookRepository.findVersionsById(id);
+        if (versions.isEmpty()) {
+            missingEntityCache.markMissing(CacheNames.MISSING_BOOKS, id);
+            return Optional.empty();
+        }
+        return Optional.of(versions.stream()
+                .map(BookVersionDto::getCategoryVersion)
+                .filter(Objects::nonNull)
+                .map(String::valueOf)
+                .collect(Collectors.joining(".", versions.get(0).getVersion() + "-", "")));
+    }
+
+    @Override
+    public Map<Long, BookPriceDto> findPricesByIds(Collection<Long> ids) {
+        return bookRepository.findPricesByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookPriceDto::getId, Function.identity()));
     }
 
     @Override
     public List<BookDtoWithoutCategoryIds> findAll(Pageable pageable) {
-        return bookRepository.findAll(pageable).stream()
-                .map(bookMapper::toDtoWithoutCategories)
-                .toList();
+        return bookRepository.findAllWithoutCategoryIdsBy(pageable);
+    }
+
+    @Override
+    public CursorPageDto<BookDtoWithoutCategoryIds> findAll(String cursor, String sort, int size) {
+        return findPage(null, cursor, sort, size);
     }
 
     @Override
     public void deleteById(Long id) {
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(new BookDeletedEvent(id));
     }
 
     @Override
-    public List<BookDto> search(BookSearchParametersDto searchParameters) {
-        Specification<Book> bookSpecification = bookSpecificationBuilder.build(searchParameters);
-        return bookRepository.findAll(bookSpecification)
-                .stream()
-                .map(bookMapper::toDto)
-                .toList();
+    public void adjustStock(Long id, int delta) {
+        if (bookRepository.adjustStock(id, delta)) {
+            return;
+        }
+        if (!bookRepository.existsById(id)) {
+            throw new EntityNotFoundException("Can`t get book by id:" + id);
+        }
+        throw new OutOfStockException("Can`t adjust stock of book by id:" + id + " by " + delta
+                + ", the book has no stock limit or not enough stock");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.BOOK_SEARCH, keyGenerator = "bookSearchKeyGenerator")
+    public List<BookDto> search(BookSearchParametersDto searchParameters, Pageable pageable) {
+        Pageable page = PageRequest.of(
+                pageable.isPaged() ? pageable.getPageNumber() : 0,
+                pageable.isPaged() ? Math.min(pageable.getPageSize(), maxPageSize) : maxPageSize,
+                pageable.getSort());
+        long remaining = maxSearchResults - page.getOffset();
+        if (remaining <= 0) {
+            return List.of();
+        }
+        int limit = (int) Math.min(page.getPageSize(), remaining);
+        List<Long> ids;
+        if (priceIndexEnabled && isPriceBandOnly(searchParameters, page.getSort())) {
+            ids = bookPriceIndex.findIds(searchParameters.getFromPrice(),
+                    searchParameters.getToPrice(), page.getOffset(), limit);
+        } else if (!isEmpty(searchParameters.getFuzzy())) {
+            List<Long> matches = bookTrigramIndex.match(searchParameters.getFuzzy());
+            ids = page.getSort().isUnsorted()
+                    ? findClosestMatches(searchParameters, matches, page.getOffset(), limit)
+                    : findSortedMatches(searchParameters, matches, page.getSort(),
+                            page.getOffset(), limit);
+        } else {
+            ids = bookRepository.findIds(bookSpecificationBuilder.build(searchParameters),
+                    page.getSort(), page.getOffset(), limit);
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return inIdOrder(ids, bookRepository.findAllWithCategoriesByIdIn(ids), bookMapper::toDto);
+    }
+
+    @Override
+    public List<String> suggest(String prefix) {
+        return bookSuggestIndex.suggest(prefix, suggestLimit);
+    }
+
+    @Override
+    public BookFacetsDto getFacets(BookSearchParametersDto searchParameters) {
+        return bookFacetIndex.facets(searchParameters);
+    }
+
+    @Override
+    public void streamSearch(BookSearchParametersDto searchParameters,
+                             Consumer<BookDtoWithoutCategoryIds> consumer) {
+        if (!isEmpty(searchParameters.getFuzzy())) {
+            streamMatches(searchParameters, consumer);
+            return;
+        }
+        long lastId = 0;
+        long sent = 0;
+        while (true) {
+            List<Book> books = bookRepository.findBy(
+                    bookSpecificationBuilder.buildAfterId(searchParameters, lastId),
+                    query -> query.sortBy(Sort.by("id")).limit(streamChunkSize).all());
+            for (Book book : books) {
+                consumer.accept(bookMapper.toDtoWithoutCategories(book));
+                if (++sent >= maxStreamResults) {
+                    return;
+                }
+            }
+            if (books.size() < streamChunkSize) {
+                return;
+            }
+            lastId = books.get(books.size() - 1).getId();
+        }
+    }
+
+    @Override
+    public List<BookDtoWithoutCategoryIds> searchByText(String query, Pageable pageable) {
+        List<Long> ids = bookTextIndex.search(query, pageable);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return inIdOrder(ids, bookRepository.findAllById(ids), bookMapper::toDtoWithoutCategories);
     }
 
     @Override
     public List<BookDtoWithoutCategoryIds> findAllByCategoryId(Long id, Pageable pageable) {
-        return bookRepository.findAllByCategoryId(id, pageable).stream()
-                .map(bookMapper::toDtoWithoutCategories)
+        return bookRepository.findAllByCategoryId(id, pageable);
+    }
+
+    @Override
+    public CursorPageDto<BookDtoWithoutCategoryIds> findAllByCategoryId(
+            Long id, String cursor, String sort, int size) {
+        return findPage(id, cursor, sort, size);
+    }
+
+    @Override
+    public List<BookDtoWithoutCategoryIds> findAllByCategories(CategoryFilterDto filter,
+                                                               Pageable pageable) {
+        int pageSize = pageable.isPaged()
+                ? Math.min(pageable.getPageSize(), maxPageSize)
+                : maxPageSize;
+        List<Long> ids = bookCategoryIndex.match(filter,
+                pageable.isPaged() ? pageable.getOffset() : 0, pageSize);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return bookRepository.findAllWithoutCategoryIdsByIdIn(ids);
+    }
+
+    private CursorPageDto<BookDtoWithoutCategoryIds> findPage(
+            Long categoryId, String cursor, String sort, int size) {
+        KeysetCursor position = cursor == null || cursor.isEmpty()
+                ? KeysetCursor.first(sort)
+                : KeysetCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        List<BookDtoWithoutCategoryIds> books =
+                findRowsAfter(categoryId, position, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = books.size() > pageSize;
+        List<BookDtoWithoutCategoryIds> page = hasNext ? books.subList(0, pageSize) : books;
+        CursorPageDto<BookDtoWithoutCategoryIds> result = new CursorPageDto<>();
+        result.setContent(List.copyOf(page));
+        if (hasNext) {
+            BookDtoWithoutCategoryIds last = page.get(page.size() - 1);
+            result.setNextCursor(nextCursor(position.getSortKey(), last).encode());
+        }
+        return result;
+    }
+
+    private List<BookDtoWithoutCategoryIds> findRowsAfter(Long categoryId, KeysetCursor position,
+                                                          Pageable limit) {
+        Long lastId = position.getLastId();
+        switch (position.getSortKey()) {
+            case TITLE:
+                return categoryId == null
+                        ? bookRepository.findPageAfterTitle(position.getLastValue(), lastId, limit)
+                        : bookRepository.findPageByCategoryIdAfterTitle(
+                                categoryId, position.getLastValue(), lastId, limit);
+            case PRICE:
+                return categoryId == null
+                        ? bookRepository.findPageAfterPrice(position.getLastPrice(), lastId, limit)
+                        : bookRepository.findPageByCategoryIdAfterPrice(
+                                categoryId, position.getLastPrice(), lastId, limit);
+            default:
+                return categoryId == null
+                        ? bookRepository.findPageAfterId(lastId, limit)
+                        : bookRepository.findPageByCategoryIdAfterId(categoryId, lastId, limit);
+        }
+    }
+
+    /**
+     * Walks the fuzzy matches closest first, a chunk at a time, and keeps
+     * those that pass the other filters, until the requested page is filled.
+     */
+    private List<Long> findClosestMatches(BookSearchParametersDto searchParameters,
+                                          List<Long> ranked, long offset, int limit) {
+        List<Long> matches = new ArrayList<>();
+        for (int from = 0; from < ranked.size() && matches.size() < offset + limit;
+                from += fuzzyChunkSize) {
+            List<Long> chunk = ranked.subList(from, Math.min(from + fuzzyChunkSize, ranked.size()));
+            Set<Long> kept = new HashSet<>(bookRepository.findIds(
+                    bookSpecificationBuilder.buildAmongIds(searchParameters, chunk),
+                    Sort.unsorted(), 0, chunk.size()));
+            chunk.stream().filter(kept::contains).forEach(matches::add);
+        }
+        if (matches.size() <= offset) {
+            return List.of();
+        }
+        return matches.subList((int) offset, (int) Math.min(matches.size(), offset + limit));
+    }
+
+    /**
+     * Sorts the fuzzy matches that pass the other filters a chunk at a time,
+     * carrying the best rows so far into the next chunk, so that no query
+     * gets more than a chunk and a page of ids.
+     */
+    private List<Long> findSortedMatches(BookSearchParametersDto searchParameters,
+                                         List<Long> matches, Sort sort, long offset, int limit) {
+        int wanted = (int) (offset + limit);
+        List<Long> best = List.of();
+        for (int from = 0; from < matches.size(); from += fuzzyChunkSize) {
+            List<Long> candidates = new ArrayList<>(best);
+            candidates.addAll(matches.subList(from,
+                    Math.min(from + fuzzyChunkSize, matches.size())));
+            best = bookRepository.findIds(
+                    bookSpecificationBuilder.buildAmongIds(searchParameters, candidates),
+                    sort, 0, wanted);
+        }
+        if (best.size() <= offset) {
+            return List.of();
+        }
+        return best.subList((int) offset, best.size());
+    }
+
+    /**
+     * Streams the fuzzy matches that pass the other filters in id order, one
+     * chunk of matched ids per query.
+     */
+    private void streamMatches(BookSearchParametersDto searchParameters,
+                               Consumer<BookDtoWithoutCategoryIds> consumer) {
+        List<Long> matches = bookTrigramIndex.match(searchParameters.getFuzzy()).stream()
+                .sorted()
                 .toList();
+        long sent = 0;
+        for (int from = 0; from < matches.size(); from += streamChunkSize) {
+            List<Long> chunk = matches.subList(from,
+                    Math.min(from + streamChunkSize, matches.size()));
+            List<Book> books = bookRepository.findBy(
+                    bookSpecificationBuilder.buildAmongIds(searchParameters, chunk),
+                    query -> query.sortBy(Sort.by("id")).all());
+            for (Book book : books) {
+                consumer.accept(bookMapper.toDtoWithoutCategories(book));
+                if (++sent >= maxStreamResults) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean isPriceBandOnly(BookSearchParametersDto searchParameters, Sort sort) {
+        return (searchParameters.getFromPrice() != null || searchParameters.getToPrice() != null)
+                && isEmpty(searchParameters.getTitles())
+                && isEmpty(searchParameters.getAuthors())
+                && isEmpty(searchParameters.getDescriptions())
+                && isEmpty(searchParameters.getCoverImages())
+                && isEmpty(searchParameters.getFuzzy())
+                && (sort.isUnsorted() || sort.equals(Sort.by("price")));
+    }
+
+    private boolean isEmpty(String[] values) {
+        return values == null || values.length == 0;
+    }
+
+    private <T> List<T> inIdOrder(List<Long> ids, List<Book> books, Function<Book, T> mapper) {
+        Map<Long, Book> booksById = books.stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .map(mapper)
+                .toList();
+    }
+
+    private KeysetCursor nextCursor(KeysetCursor.SortKey sortKey,
+                                    BookDtoWithoutCategoryIds last) {
+        switch (sortKey) {
+            case TITLE:
+                return KeysetCursor.after(sortKey, last.getId(), last.getTitle());
+            case PRICE:
+                return KeysetCursor.after(sortKey, last.getId(), last.getPrice());
+            default:
+                return KeysetCursor.after(sortKey, last.getId(), "");
+        }
     }
 }
@@ -2,7 +2,9 @@ package com.example.bookstore.service.category;
 
 import com.example.bookstore.dto.category.CategoryDto;
 import com.example.bookstore.dto.category.CreateCategoryRequestDto;
+import com.example.bookstore.dto.category.VersionedCategoryDto;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.domain.Pageable;
 
 public interface CategoryService {
@@ -10,6 +12,13 @@ public interface CategoryService {
 
     CategoryDto getById(Long id);
 
+    /**
+     * Returns the category's version. While the category snapshot is loaded
+     * the category itself comes from the same snapshot read; otherwise only
+     * the version is queried and the category is left null.
+     */
+    Optional<VersionedCategoryDto> findVersionedById(Long id);
+
     CategoryDto save(CreateCategoryRequestDto categoryDto);
 
     CategoryDto update(Long id, CreateCategoryRequestDto categoryDto);
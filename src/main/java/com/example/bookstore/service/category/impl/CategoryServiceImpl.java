@@ -1,58 +1,107 @@
 package com.example.bookstore.service.category.impl;
 
+import com.example.bookstore.cache.CacheNames;
+import com.example.bookstore.cache.CategorySnapshot;
+import com.example.bookstore.cache.EntityCacheEvictor;
+import com.example.bookstore.cache.MissingEntityCache;
+import com.example.bookstore.cache.SingleFlight;
 import com.example.bookstore.dto.category.CategoryDto;
 import com.example.bookstore.dto.category.CreateCategoryRequestDto;
+import com.example.bookstore.dto.category.VersionedCategoryDto;
+import com.example.bookstore.event.CategoryChangedEvent;
 import com.example.bookstore.exception.EntityNotFoundException;
 import com.example.bookstore.mapper.CategoryMapper;
 import com.example.bookstore.model.Category;
 import com.example.bookstore.repository.category.CategoryRepository;
 import com.example.bookstore.service.category.CategoryService;
 import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @RequiredArgsConstructor
 @Service
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategorySnapshot categorySnapshot;
+    private final MissingEntityCache missingEntityCache;
+    private final SingleFlight<Long, CategoryDto> categoryLoads = new SingleFlight<>();
 
     @Override
     public List<CategoryDto> findAll(Pageable pageable) {
-        return categoryRepository.findAll(pageable).stream()
-                .map(categoryMapper::toDto)
-                .toList();
+        if (categorySnapshot.isLoaded() && pageable.getSort().isUnsorted()) {
+            return categorySnapshot.findAll(pageable);
+        }
+        return categoryRepository.findAllDtoBy(pageable);
     }
 
     @Override
     public CategoryDto getById(Long id) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        "Can not found Category by id = " + id)
-                );
-        return categoryMapper.toDto(category);
+        if (categorySnapshot.isLoaded()) {
+            return categorySnapshot.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException(
+                            "Can not found Category by id = " + id)
+                    );
+        }
+        if (missingEntityCache.isMissing(CacheNames.MISSING_CATEGORIES, id)) {
+            throw new EntityNotFoundException("Can not found Category by id = " + id);
+        }
+        return categoryLoads.load(id, () -> {
+            Optional<Category> category = categoryRepository.findById(id);
+            if (category.isEmpty()) {
+                missingEntityCache.markMissing(CacheNames.MISSING_CATEGORIES, id);
+                throw new EntityNotFoundException("Can not found Category by id = " + id);
+            }
+            return categoryMapper.toDto(category.get());
+        });
+    }
+
+    @Override
+    public Optional<VersionedCategoryDto> findVersionedById(Long id) {
+        if (categorySnapshot.isLoaded()) {
+            return categorySnapshot.findVersionedById(id);
+        }
+        if (missingEntityCache.isMissing(CacheNames.MISSING_CATEGORIES, id)) {
+            return Optional.empty();
+        }
+        Optional<Long> version = categoryRepository.findVersionById(id);
+        if (version.isEmpty()) {
+            missingEntityCache.markMissing(CacheNames.MISSING_CATEGORIES, id);
+        }
+        return version.map(categoryVersion -> new VersionedCategoryDto(categoryVersion, null));
     }
 
     @Override
     public CategoryDto save(CreateCategoryRequestDto categoryDto) {
         Category category = categoryMapper.toEntity(categoryDto);
-        return categoryMapper.toDto(categoryRepository.save(category));
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId()));
+        return categoryMapper.toDto(savedCategory);
     }
 
     @Override
+    @Transactional
     public CategoryDto update(Long id, CreateCategoryRequestDto categoryDto) {
-        Category dbCategory = categoryRepository.findById(id)
+        Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(
                         "Can not found Category by id = " + id)
                 );
-        Category category = categoryMapper.toEntity(categoryDto);
-        category.setId(id);
-        return categoryMapper.toDto(categoryRepository.save(category));
+        categoryMapper.updateCategory(categoryDto, category);
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
+        return categoryMapper.toDto(savedCategory);
     }
 
     @Override
     public void deleteById(Long id) {
         categoryRepository.deleteById(id);
+        entityCacheEvictor.evictBookCategories();
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 }
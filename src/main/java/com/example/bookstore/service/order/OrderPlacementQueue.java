@@ -0,0 +1,102 @@
+package com.example.bookstore.service.order;
+
+import com.example.bookstore.dto.order.OrderCreateRequestDto;
+import com.example.bookstore.dto.order.OrderResponseDto;
+import com.example.bookstore.exception.OrderQueueFullException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Places orders off the request thread. A request only records the order in
+ * the PROCESSING status and hands its id to a fixed set of workers through a
+ * bounded queue; the workers price the cart, write the items and clear the
+ * cart. A burst of checkouts therefore holds neither Tomcat threads nor more
+ * pool connections than there are workers, and once the queue is full new
+ * orders are refused instead of piling up. The queue lives in memory only, so
+ * a periodic sweep hands orders that are still PROCESSING long after they
+ * were accepted, for example because their node stopped before draining its
+ * queue, to the workers again. Placing an order locks its row and checks the
+ * status, so an order queued twice is still placed once.
+ */
+@Service
+public class OrderPlacementQueue {
+    private static final String EXECUTOR_NAME = "orderPlacement";
+    private static final String QUEUE_FULL_MESSAGE = "Too many orders are waiting, retry later";
+
+    private final OrderService orderService;
+    private final ThreadPoolExecutor executor;
+    private final Duration shutdownTimeout;
+    private final Duration staleAfter;
+
+    public OrderPlacementQueue(OrderService orderService,
+                               MeterRegistry meterRegistry,
+                               @Value("${order.async.workers}") int workers,
+                               @Value("${order.async.queue-capacity}") int queueCapacity,
+                               @Value("${order.async.shutdown-timeout}") Duration shutdownTimeout,
+                               @Value("${order.async.stale-after}") Duration staleAfter) {
+        this.orderService = orderService;
+        this.shutdownTimeout = shutdownTimeout;
+        this.staleAfter = staleAfter;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("order-placement-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, EXECUTOR_NAME, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public OrderResponseDto submit(Long userId, OrderCreateRequestDto requestDto) {
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new OrderQueueFullException(QUEUE_FULL_MESSAGE);
+        }
+        OrderResponseDto order = orderService.createOrderIntent(userId, requestDto);
+        try {
+            executor.execute(() -> place(order.getId()));
+        } catch (RejectedExecutionException e) {
+            orderService.failOrder(order.getId());
+            throw new OrderQueueFullException(QUEUE_FULL_MESSAGE);
+        }
+        return order;
+    }
+
+    @Scheduled(fixedDelayString = "${order.async.sweep-interval}")
+    public void requeueStaleOrders() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0 || executor.isShutdown()) {
+            return;
+        }
+        for (Long orderId : orderService.findStaleOrderIds(
+                LocalDateTime.now().minus(staleAfter), capacity)) {
+            try {
+                executor.execute(() -> place(orderId));
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void place(Long orderId) {
+        try {
+            orderService.completeOrder(orderId);
+        } catch (RuntimeException e) {
+            orderService.failOrder(orderId);
+        }
+    }
+}
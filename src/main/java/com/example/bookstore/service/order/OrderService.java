@@ -3,14 +3,35 @@ package com.example.bookstore.service.order;
 import com.example.bookstore.dto.order.OrderCreateRequestDto;
 import com.example.bookstore.dto.order.OrderResponseDto;
 import com.example.bookstore.dto.order.OrderUpdateRequestDto;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface OrderService {
     OrderResponseDto createOrder(Long userId, OrderCreateRequestDto requestDto);
 
+    /**
+     * Records an order in the PROCESSING status, with the ids of the items
+     * in the cart at that moment, without pricing it or touching the cart;
+     * {@link #completeOrder(Long)} does the rest later and orders only those
+     * items.
+     */
+    OrderResponseDto createOrderIntent(Long userId, OrderCreateRequestDto requestDto);
+
+    void completeOrder(Long orderId);
+
+    void failOrder(Long orderId);
+
+    /**
+     * Returns ids of orders still PROCESSING that were accepted before the
+     * given time, oldest first.
+     */
+    List<Long> findStaleOrderIds(LocalDateTime acceptedBefore, int limit);
+
     List<OrderResponseDto> getAllOrders(Long userId);
 
     OrderResponseDto getOrderById(Long id);
 
+    OrderResponseDto getOrderById(Long userId, Long id);
+
     OrderResponseDto updateOrderStatus(Long userId, Long orderId, OrderUpdateRequestDto requestDto);
 }
@@ -1,25 +1,35 @@
 package com.example.bookstore.service.order.impl;
 
+import com.example.bookstore.dto.book.BookPriceDto;
+import com.example.bookstore.dto.cartitem.CartItemDto;
 import com.example.bookstore.dto.order.OrderCreateRequestDto;
 import com.example.bookstore.dto.order.OrderResponseDto;
 import com.example.bookstore.dto.order.OrderUpdateRequestDto;
+import com.example.bookstore.exception.EntityNotFoundException;
 import com.example.bookstore.mapper.OrderItemMapper;
 import com.example.bookstore.mapper.OrderMapper;
 import com.example.bookstore.model.Order;
 import com.example.bookstore.model.OrderItem;
 import com.example.bookstore.model.User;
+import com.example.bookstore.repository.book.BookRepository;
 import com.example.bookstore.repository.order.OrderRepository;
 import com.example.bookstore.repository.orderitem.OrderItemRepository;
 import com.example.bookstore.repository.user.UserRepository;
 import com.example.bookstore.service.book.BookService;
+import com.example.bookstore.service.book.StockAllocator;
 import com.example.bookstore.service.order.OrderService;
 import com.example.bookstore.service.shoppingcart.ShoppingCartService;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,48 +38,69 @@ import org.springframework.transaction.annotation.Transactional;
 public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final ShoppingCartService shoppingCartService;
     private final BookService bookService;
+    private final StockAllocator stockAllocator;
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
 
     @Override
     @Transactional
     public OrderResponseDto createOrder(Long userId, OrderCreateRequestDto requestDto) {
-        Order order = new Order();
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new RuntimeException("Can`t find user by id:" + userId)
-        );
-        order.setUser(user);
-        order.setOrderDate(LocalDateTime.now());
-        order.setStatus(Order.Status.PENDING);
-        Set<OrderItem> orderItems =
-                shoppingCartService.getShoppingCart(userId).getCartItems().stream()
-                        .map(orderItemMapper::toEntity)
-                        .collect(Collectors.toSet());
-        orderItems.forEach(orderItem ->
-                orderItem.setPrice(bookService.findById(orderItem.getBook().getId()).getPrice()));
-        order.setOrderItems(orderItems);
-        order.setShippingAddress(requestDto.getShippingAddress());
-        BigDecimal total = BigDecimal.valueOf(0);
-        for (OrderItem item : orderItems) {
-            total = total.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        return orderMapper.toDto(placeOrder(newOrder(userId, requestDto), getCartItems(userId)));
+    }
+
+    @Override
+    @Transactional
+    public OrderResponseDto createOrderIntent(Long userId, OrderCreateRequestDto requestDto) {
+        Order order = newOrder(userId, requestDto);
+        order.setStatus(Order.Status.PROCESSING);
+        order.setTotal(BigDecimal.ZERO);
+        order.setCartItemIds(getCartItems(userId).stream()
+                .map(CartItemDto::getId)
+                .collect(Collectors.toSet()));
+        return orderMapper.toDto(orderRepository.save(order));
+    }
+
+    @Override
+    @Transactional
+    public void completeOrder(Long orderId) {
+        Order order = getOrderForUpdate(orderId);
+        if (order.getStatus() == Order.Status.PROCESSING) {
+            Set<Long> cartItemIds = order.getCartItemIds();
+            placeOrder(order, getCartItems(order.getUser().getId()).stream()
+                    .filter(cartItem -> cartItemIds.contains(cartItem.getId()))
+                    .toList());
+        }
+    }
+
+    @Override
+    @Transactional
+    public void failOrder(Long orderId) {
+        Order order = getOrderForUpdate(orderId);
+        if (order.getStatus() == Order.Status.PROCESSING) {
+            order.setStatus(Order.Status.FAILED);
         }
-        order.setTotal(total);
-        Order savedOrder = orderRepository.save(order);
-        orderItems.forEach(orderItem ->
-                orderItem.setOrder(savedOrder));
-        orderItemRepository.saveAll(orderItems);
-        return orderMapper.toDto(savedOrder);
+    }
+
+    @Override
+    public List<Long> findStaleOrderIds(LocalDateTime acceptedBefore, int limit) {
+        return orderRepository.findIdsByStatusAndOrderDateBefore(
+                Order.Status.PROCESSING, acceptedBefore, PageRequest.of(0, limit));
     }
 
     @Override
     public OrderResponseDto getOrderById(Long id) {
-        Order order = orderRepository.findById(id).orElseThrow(
-                () -> new RuntimeException("Can`t find order by id:" + id)
-        );
-        return orderMapper.toDto(order);
+        return orderMapper.toDto(getOrder(id));
+    }
+
+    @Override
+    public OrderResponseDto getOrderById(Long userId, Long id) {
+        return orderMapper.toDto(orderRepository.findByIdAndUserId(id, userId).orElseThrow(
+                () -> new EntityNotFoundException("Can`t find order by id:" + id)
+        ));
     }
 
     @Override
@@ -92,4 +123,70 @@ public class OrderServiceImpl implements OrderService {
         Order savedOrder = orderRepository.save(order);
         return orderMapper.toDto(savedOrder);
     }
+
+    private Order newOrder(Long userId, OrderCreateRequestDto requestDto) {
+        Order order = new Order();
+        User user = userRepository.findById(userId).orElseThrow(
+                () -> new RuntimeException("Can`t find user by id:" + userId)
+        );
+        order.setUser(user);
+        order.setOrderDate(LocalDateTime.now());
+        order.setShippingAddress(requestDto.getShippingAddress());
+        return order;
+    }
+
+    private List<CartItemDto> getCartItems(Long userId) {
+        return List.copyOf(shoppingCartService.getShoppingCart(userId).getCartItems());
+    }
+
+    private Order placeOrder(Order order, List<CartItemDto> cartItems) {
+        Map<Long, BookPriceDto> books = bookService.findPricesByIds(cartItems.stream()
+                .map(CartItemDto::getBookId)
+                .collect(Collectors.toSet()));
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
+        Map<Long, Integer> limitedQuantities = new TreeMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartItemDto cartItem : cartItems) {
+            BookPriceDto book = books.get(cartItem.getBookId());
+            if (book == null) {
+                throw new EntityNotFoundException("Can`t get book by id:" + cartItem.getBookId());
+            }
+            if (book.getStock() != null) {
+                limitedQuantities.merge(book.getId(), cartItem.getQuantity(), Integer::sum);
+            }
+            BigDecimal price = book.getPrice();
+            OrderItem orderItem = orderItemMapper.toEntity(cartItem);
+            orderItem.setBook(bookRepository.getReferenceById(cartItem.getBookId()));
+            orderItem.setOrder(order);
+            orderItem.setPrice(price);
+            orderItems.add(orderItem);
+            total = total.add(price.multiply(BigDecimal.valueOf(cartItem.getQuantity())));
+        }
+        limitedQuantities.forEach(stockAllocator::reserve);
+        order.setStatus(Order.Status.PENDING);
+        order.setTotal(total);
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        orderItemRepository.insertAll(orderItems);
+        savedOrder.setOrderItems(new HashSet<>(orderItems));
+        shoppingCartService.removeCartItems(cartItems.stream()
+                .map(CartItemDto::getId)
+                .toList());
+        return savedOrder;
+    }
+
+    private Order getOrder(Long id) {
+        return orderRepository.findById(id).orElseThrow(
+                () -> new RuntimeException("Can`t find order by id:" + id)
+        );
+    }
+
+    /**
+     * Locks the order row, so that a worker and a re-queued copy of the same
+     * order, or the stale order sweep, never both move it out of PROCESSING.
+     */
+    private Order getOrderForUpdate(Long id) {
+        return orderRepository.findForUpdateById(id).orElseThrow(
+                () -> new RuntimeException("Can`t find order by id:" + id)
+        );
+    }
 }
@@ -5,6 +5,7 @@ import com.example.bookstore.dto.cartitem.CreateCartItemRequestDto;
 import com.example.bookstore.dto.cartitem.UpdateCartItemRequestDto;
 import com.example.bookstore.dto.shoppingcart.ShoppingCartDto;
 import com.example.bookstore.model.User;
+import java.util.Collection;
 
 public interface ShoppingCartService {
     ShoppingCartDto getShoppingCart(Long id);
@@ -17,5 +18,7 @@ public interface ShoppingCartService {
 
     void removeCartItem(Long cartItemId);
 
+    void removeCartItems(Collection<Long> cartItemIds);
+
     void registerNewShoppingCart(User user);
 }
@@ -10,9 +10,11 @@ import com.example.bookstore.mapper.ShoppingCartMapper;
 import com.example.bookstore.model.CartItem;
 import com.example.bookstore.model.ShoppingCart;
 import com.example.bookstore.model.User;
+import com.example.bookstore.repository.book.BookRepository;
 import com.example.bookstore.repository.cartitem.CartItemRepository;
 import com.example.bookstore.repository.shoppingcart.ShoppingCartRepository;
 import com.example.bookstore.service.shoppingcart.ShoppingCartService;
+import java.util.Collection;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class ShoppingCartServiceImpl implements ShoppingCartService {
     private final ShoppingCartRepository shoppingCartRepository;
     private final CartItemRepository cartItemRepository;
+    private final BookRepository bookRepository;
     private final ShoppingCartMapper shoppingCartMapper;
     private final CartItemMapper cartItemMapper;
 
@@ -37,6 +40,7 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
             Long id, CreateCartItemRequestDto cartItemRequestDto) {
         ShoppingCart shoppingCart = getShoppingCartByUserId(id);
         CartItem cartItem = cartItemMapper.toEntity(cartItemRequestDto);
+        cartItem.setBook(bookRepository.getReferenceById(cartItemRequestDto.getBookId()));
         cartItem.setShoppingCart(shoppingCart);
         cartItemRepository.save(cartItem);
         return shoppingCartMapper.toDto(getShoppingCartByUserId(id));
@@ -63,6 +67,14 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
         cartItemRepository.delete(cartItem);
     }
 
+    @Override
+    @Transactional
+    public void removeCartItems(Collection<Long> cartItemIds) {
+        if (!cartItemIds.isEmpty()) {
+            cartItemRepository.softDeleteAllByIdIn(cartItemIds);
+        }
+    }
+
     @Override
     public void registerNewShoppingCart(User user) {
         ShoppingCart shoppingCart = new ShoppingCart();
@@ -0,0 +1,74 @@
+package com.example.bookstore.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.bookstore.dto.book.BookSearchParametersDto;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+public class BookSearchKeyGeneratorTest {
+    private final BookSearchKeyGenerator keyGenerator = new BookSearchKeyGenerator();
+
+    @Test
+    @DisplayName("Verify that reordered and repeated values give the same key")
+    void generate_ReorderedRepeatedValues_ReturnsEqualKeys() {
+        BookSearchParametersDto first = new BookSearchParametersDto();
+        first.setAuthors(new String[]{"Tolkien", "Herbert"});
+        first.setFuzzy(new String[]{"hobit", "dune", "hobit"});
+        BookSearchParametersDto second = new BookSearchParametersDto();
+        second.setAuthors(new String[]{"Herbert", "Tolkien", "Herbert"});
+        second.setFuzzy(new String[]{"dune", "hobit"});
+
+        assertThat(generate(first, PageRequest.of(0, 10)))
+                .isEqualTo(generate(second, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    @DisplayName("Verify that prices differing only in scale give the same key")
+    void generate_PricesWithDifferentScale_ReturnsEqualKeys() {
+        BookSearchParametersDto first = new BookSearchParametersDto();
+        first.setFromPrice(new BigDecimal("20"));
+        first.setToPrice(new BigDecimal("45.5"));
+        BookSearchParametersDto second = new BookSearchParametersDto();
+        second.setFromPrice(new BigDecimal("20.00"));
+        second.setToPrice(new BigDecimal("45.50"));
+
+        assertThat(generate(first, PageRequest.of(0, 10)))
+                .isEqualTo(generate(second, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    @DisplayName("Verify that a missing filter and an empty one give the same key")
+    void generate_NullAndEmptyValues_ReturnsEqualKeys() {
+        BookSearchParametersDto first = new BookSearchParametersDto();
+        BookSearchParametersDto second = new BookSearchParametersDto();
+        second.setTitles(new String[0]);
+
+        assertThat(generate(first, PageRequest.of(0, 10)))
+                .isEqualTo(generate(second, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    @DisplayName("Verify that different filters, pages or sorts give different keys")
+    void generate_DifferentRequests_ReturnsDifferentKeys() {
+        BookSearchParametersDto titles = new BookSearchParametersDto();
+        titles.setTitles(new String[]{"Dune"});
+        BookSearchParametersDto authors = new BookSearchParametersDto();
+        authors.setAuthors(new String[]{"Dune"});
+
+        Object key = generate(titles, PageRequest.of(0, 10));
+        assertThat(key).isNotEqualTo(generate(authors, PageRequest.of(0, 10)));
+        assertThat(key).isNotEqualTo(generate(titles, PageRequest.of(1, 10)));
+        assertThat(key).isNotEqualTo(generate(titles, PageRequest.of(0, 20)));
+        assertThat(key).isNotEqualTo(generate(titles, PageRequest.of(0, 10, Sort.by("price"))));
+        assertThat(key).isNotEqualTo(generate(titles, Pageable.unpaged()));
+    }
+
+    private Object generate(BookSearchParametersDto searchParameters, Pageable pageable) {
+        return keyGenerator.generate(null, null, searchParameters, pageable);
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.bookstore.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import com.example.bookstore.event.BookDeletedEvent;
+import com.example.bookstore.event.BookSavedEvent;
+import com.example.bookstore.event.CategoryChangedEvent;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.CacheInvalidation;
+import com.example.bookstore.repository.book.BookRepository;
+import com.example.bookstore.repository.cacheinvalidation.CacheInvalidationRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheInvalidationBusTest {
+    private static final String OTHER_NODE = "other-node";
+    private static final Duration GAP_TIMEOUT = Duration.ofMinutes(1);
+
+    @Mock
+    private CacheInvalidationRepository cacheInvalidationRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private EntityCacheEvictor entityCacheEvictor;
+    @Mock
+    private MissingEntityCache missingEntityCache;
+    @Mock
+    private UserPrincipalCacheEvictor userPrincipalCacheEvictor;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    @DisplayName("Verify that the first poll only starts from the newest row")
+    void poll_FirstPoll_ReadsMaxIdOnly() {
+        Mockito.when(cacheInvalidationRepository.findMaxId()).thenReturn(10L);
+        CacheInvalidationBus bus = getBus(true, GAP_TIMEOUT);
+
+        bus.poll();
+
+        verify(cacheInvalidationRepository, times(1)).findMaxId();
+        verifyNoMoreInteractions(cacheInvalidationRepository);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Verify that a poll reads only rows above the watermark and skips its own")
+    void poll_NewRows_AppliesRemoteRowsAndMovesWatermark() {
+        CacheInvalidationBus bus = getBus(true, GAP_TIMEOUT);
+        String ownNode = (String) ReflectionTestUtils.getField(bus, "nodeId");
+        Mockito.when(cacheInvalidationRepository.findMaxId()).thenReturn(10L);
+        Mockito.when(cacheInvalidationRepository.findAllByIdGreaterThanOrderById(10L))
+                .thenReturn(List.of(
+                        getInvalidation(
+                                11L, CacheInvalidation.EntityType.CATEGORY, "5", OTHER_NODE),
+                        getInvalidation(
+                                12L, CacheInvalidation.EntityType.CATEGORY, "6", ownNode)));
+        Mockito.when(cacheInvalidationRepository.findAllByIdGreaterThanOrderById(12L))
+                .thenReturn(List.of());
+
+        bus.poll();
+        bus.poll();
+        bus.poll();
+
+        verify(entityCacheEvictor, times(1)).evictCategory(5L);
+        verify(missingEntityCache, times(1)).forget(CacheNames.MISSING_CATEGORIES, 5L);
+        ArgumentCaptor<CategoryChangedEvent> event =
+                ArgumentCaptor.forClass(CategoryChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().getCategoryId()).isEqualTo(5L);
+        assertThat(event.getValue().isRemote()).isTrue();
+        verify(cacheInvalidationRepository, times(1)).findAllByIdGreaterThanOrderById(12L);
+        verify(cacheInvalidationRepository, never()).findAllByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Verify that a row committing after a higher id is applied on a later poll")
+    void poll_LateCommit_AppliesGapRow() {
+        Mockito.when(cacheInvalidationRepository.findMaxId()).thenReturn(10L);
+        Mockito.when(cacheInvalidationRepository.findAllByIdGreaterThanOrderById(10L))
+                .thenReturn(List.of(
+                        getUserInvalidation(13L, "a@x.com")));
+        Mockito.when(cacheInvalidationRepository.findAllByIdGreaterThanOrderById(13L))
+                .thenReturn(List.of());
+        Mockito.when(cacheInvalidationRepository.findAllByIdIn(Set.of(11L, 12L)))
+                .thenReturn(List.of(
+                        getUserInvalidation(12L, "b@x.com")));
+        Mockito.when(cacheInvalidationRepository.findAllByIdIn(Set.of(11L)))
+                .thenReturn(List.of());
+        CacheInvalidationBus bus = getBus(true, GAP_TIMEOUT);
+
+        bus.poll();
+        bus.poll();
+        bus.poll();
+        bus.poll();
+        bus.poll();
+
+        verify(userPrincipalCacheEvictor, times(1)).evict("a@x.com");
+        verify(userPrincipalCacheEvictor, times(1)).evict("b@x.com");
+        verify(cacheInvalidationRepository, times(2)).findAllByIdIn(Set.of(11L));
+    }
+
+    @Test
+    @DisplayName("Verify that a gap that never fills is dropped after the gap timeout")
+    void poll_ExpiredGap_StopsRechecking() {
+        Mockito.when(cacheInvalidationRepository.findMaxId()).thenReturn(10L);
+        Mockito.when(cacheInvalidationRepository.findAllByIdGreaterThanOrderById(10L))
+                .thenReturn(List.of(
+                        getUserInvalidation(12L, "a@x.com")));
+        Mockito.when(cacheInvalidationRepository.findAllByIdGreaterThanOrderById(12L))
+                .thenReturn(List.of());
+        Mockito.when(cacheInvalidationRepository.findAllByIdIn(Set.of(11L))).thenReturn(List.of());
+        CacheInvalidationBus bus = getBus(true, Duration.ZERO);
+
+        bus.poll();
+        bus.poll();
+        bus.poll();
+        bus.poll();
+
+        verify(cacheInvalidationRepository, times(1)).findAllByIdIn(Set.of(11L));
+    }
+
+    @Test
+    @DisplayName("Verify that a jump of the id counter is not tracked as a gap")
+    void poll_IdJump_DoesNotTrackGap() {
+        Mockito.when(cacheInvalidationRepository.findMaxId()).thenReturn(10L);
+        Mockito.when(cacheInvalidationRepository.findAllByIdGreaterThanOrderById(10L))
+                .thenReturn(List.of(getInvalidation(
+                        100_000L, CacheInvalidation.EntityType.USER, "a@x.com", OTHER_NODE)));
+        Mockito.when(cacheInvalidationRepository.findAllByIdGreaterThanOrderById(100_000L))
+                .thenReturn(List.of());
+        CacheInvalidationBus bus = getBus(true, GAP_TIMEOUT);
+
+        bus.poll();
+        bus.poll();
+        bus.poll();
+
+        verify(cacheInvalidationRepository, never()).findAllByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Verify that a remote book change reloads the book or reports it deleted")
+    void poll_RemoteBookChanges_PublishesSavedOrDeleted() {
+        Book book = new Book();
+        book.setId(1L);
+        Mockito.when(cacheInvalidationRepository.findMaxId()).thenReturn(0L);
+        Mockito.when(cacheInvalidationRepository.findAllByIdGreaterThanOrderById(0L))
+                .thenReturn(List.of(
+                        getInvalidation(1L, CacheInvalidation.EntityType.BOOK, "1", OTHER_NODE),
+                        getInvalidation(2L, CacheInvalidation.EntityType.BOOK, "2", OTHER_NODE)));
+        Mockito.when(bookRepository.findWithCategoriesById(1L)).thenReturn(Optional.of(book));
+        Mockito.when(bookRepository.findWithCategoriesById(2L)).thenReturn(Optional.empty());
+        CacheInvalidationBus bus = getBus(true, GAP_TIMEOUT);
+
+        bus.poll();
+        bus.poll();
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues().get(0)).isInstanceOf(BookSavedEvent.class);
+        assertThat(((BookSavedEvent) events.getAllValues().get(0)).isRemote()).isTrue();
+        assertThat(events.getAllValues().get(1)).isInstanceOf(BookDeletedEvent.class);
+        verify(entityCacheEvictor, times(1)).evictBook(1L);
+        verify(entityCacheEvictor, times(1)).evictBook(2L);
+    }
+
+    @Test
+    @DisplayName("Verify that a disabled bus neither polls nor appends")
+    void pollAndAppend_Disabled_DoNothing() {
+        CacheInvalidationBus bus = getBus(false, GAP_TIMEOUT);
+
+        bus.poll();
+        bus.onCategoryChanged(new CategoryChangedEvent(1L));
+
+        verifyNoInteractions(cacheInvalidationRepository);
+    }
+
+    @Test
+    @DisplayName("Verify that local changes are appended and replayed ones are not")
+    void onCategoryChanged_LocalAndRemote_AppendsLocalOnly() {
+        CacheInvalidationBus bus = getBus(true, GAP_TIMEOUT);
+
+        bus.onCategoryChanged(new CategoryChangedEvent(1L));
+        bus.onCategoryChanged(new CategoryChangedEvent(2L, true));
+
+        ArgumentCaptor<CacheInvalidation> appended =
+                ArgumentCaptor.forClass(CacheInvalidation.class);
+        verify(cacheInvalidationRepository, times(1)).save(appended.capture());
+        assertThat(appended.getValue().getEntityKey()).isEqualTo("1");
+        assertThat(appended.getValue().getNodeId())
+                .isEqualTo(ReflectionTestUtils.getField(bus, "nodeId"));
+    }
+
+    private CacheInvalidationBus getBus(boolean enabled, Duration gapTimeout) {
+        return new CacheInvalidationBus(cacheInvalidationRepository, bookRepository,
+                entityCacheEvictor, missingEntityCache, userPrincipalCacheEvictor,
+                eventPublisher, enabled, gapTimeout, Duration.ofDays(1));
+    }
+
+    private CacheInvalidation getUserInvalidation(Long id, String email) {
+        return getInvalidation(id, CacheInvalidation.EntityType.USER, email, OTHER_NODE);
+    }
+
+    private CacheInvalidation getInvalidation(Long id, CacheInvalidation.EntityType entityType,
+                                              String entityKey, String nodeId) {
+        CacheInvalidation invalidation = new CacheInvalidation();
+        invalidation.setId(id);
+        invalidation.setEntityType(entityType);
+        invalidation.setEntityKey(entityKey);
+        invalidation.setNodeId(nodeId);
+        return invalidation;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.bookstore.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.bookstore.model.IdempotencyRecord;
+import com.example.bookstore.repository.idempotency.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyStoreTest {
+    private static final Long USER_ID = 1L;
+    private static final String PATH = "/orders";
+    private static final String KEY = "key";
+    private static final byte[] BODY = "{\"shippingAddress\":\"Kyiv\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OTHER_BODY = "{\"shippingAddress\":\"Lviv\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    private IdempotencyStore idempotencyStore;
+    private IdempotencyStore.Reservation firstReservation;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(idempotencyRecordRepository,
+                new SimpleMeterRegistry(), Duration.ofDays(1), Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    @DisplayName("Verify that a key reused with another body is reported as mismatched")
+    void reserve_SameKeyOtherBody_IsMismatched() {
+        IdempotencyRecord firstRecord = reserveFirst();
+        givenKeyTaken(firstRecord);
+
+        IdempotencyStore.Reservation actual =
+                idempotencyStore.reserve(USER_ID, PATH, KEY, OTHER_BODY);
+
+        assertThat(actual.isMismatched()).isTrue();
+        assertThat(actual.isOwned()).isFalse();
+        assertThat(actual.getStoredResponse()).isNull();
+    }
+
+    @Test
+    @DisplayName("Verify that a retry with the same body gets the stored response")
+    void reserve_SameKeySameBody_ReplaysStoredResponse() {
+        IdempotencyRecord firstRecord = reserveFirst();
+        firstRecord.setStatusCode(200);
+        firstRecord.setResponseBody("{}");
+        givenKeyTaken(firstRecord);
+
+        IdempotencyStore.Reservation actual = idempotencyStore.reserve(USER_ID, PATH, KEY, BODY);
+
+        assertThat(actual.isMismatched()).isFalse();
+        assertThat(actual.getStoredResponse().getBody()).isEqualTo("{}");
+    }
+
+    @Test
+    @DisplayName("Verify that a response kept in memory is not replayed for another body")
+    void reserve_CompletedKeyOtherBody_IsMismatched() {
+        IdempotencyRecord firstRecord = reserveFirst();
+        idempotencyStore.complete(firstReservation,
+                new IdempotencyStore.StoredResponse(200, null, null, "{}"));
+        firstRecord.setStatusCode(200);
+        givenKeyTaken(firstRecord);
+
+        IdempotencyStore.Reservation sameBody =
+                idempotencyStore.reserve(USER_ID, PATH, KEY, BODY);
+        IdempotencyStore.Reservation otherBody =
+                idempotencyStore.reserve(USER_ID, PATH, KEY, OTHER_BODY);
+
+        assertThat(sameBody.getStoredResponse()).isNotNull();
+        assertThat(otherBody.isMismatched()).isTrue();
+        verify(idempotencyRecordRepository, times(1))
+                .findByUserIdAndRequestPathAndIdempotencyKey(USER_ID, PATH, KEY);
+    }
+
+    private IdempotencyRecord reserveFirst() {
+        IdempotencyRecord[] saved = new IdempotencyRecord[1];
+        Mockito.when(idempotencyRecordRepository.saveAndFlush(any()))
+                .thenAnswer(invocation -> {
+                    saved[0] = invocation.getArgument(0);
+                    saved[0].setId(10L);
+                    return saved[0];
+                });
+        firstReservation = idempotencyStore.reserve(USER_ID, PATH, KEY, BODY);
+        assertThat(firstReservation.isOwned()).isTrue();
+        return saved[0];
+    }
+
+    private void givenKeyTaken(IdempotencyRecord record) {
+        Mockito.doThrow(new DataIntegrityViolationException("Duplicate key"))
+                .when(idempotencyRecordRepository).saveAndFlush(any());
+        Mockito.when(idempotencyRecordRepository
+                        .findByUserIdAndRequestPathAndIdempotencyKey(USER_ID, PATH, KEY))
+                .thenReturn(Optional.of(record));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.bookstore.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.bookstore.dto.category.CategoryFilterDto;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.Category;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BookCategoryIndexTest {
+    private static final int LIMIT = 10;
+    private static final Long FANTASY = 1L;
+    private static final Long CLASSIC = 2L;
+    private static final Long SCI_FI = 3L;
+
+    private BookCategoryIndex bookCategoryIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookCategoryIndex = new BookCategoryIndex();
+        bookCategoryIndex.rebuild(List.of(
+                getBook(1L, FANTASY, CLASSIC),
+                getBook(2L, FANTASY),
+                getBook(3L, SCI_FI, CLASSIC),
+                getBook(4L, SCI_FI),
+                getBook(5L)));
+    }
+
+    @Test
+    @DisplayName("Verify that an empty filter returns every book")
+    void match_EmptyFilter_ReturnsAllBooks() {
+        assertThat(bookCategoryIndex.match(new CategoryFilterDto(), 0, LIMIT))
+                .containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    @DisplayName("Verify that all, any and none combine as AND, OR and AND NOT")
+    void match_CombinedGroups_ReturnsIntersection() {
+        assertThat(bookCategoryIndex.match(getFilter(new Long[]{FANTASY, CLASSIC}, null, null),
+                0, LIMIT)).containsExactly(1L);
+        assertThat(bookCategoryIndex.match(getFilter(null, new Long[]{FANTASY, SCI_FI}, null),
+                0, LIMIT)).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(bookCategoryIndex.match(getFilter(null, null, new Long[]{CLASSIC}),
+                0, LIMIT)).containsExactly(2L, 4L, 5L);
+        assertThat(bookCategoryIndex.match(
+                getFilter(new Long[]{CLASSIC}, new Long[]{SCI_FI}, new Long[]{FANTASY}),
+                0, LIMIT)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Verify that an unknown category matches no book")
+    void match_UnknownCategory_ReturnsEmpty() {
+        assertThat(bookCategoryIndex.match(getFilter(new Long[]{99L}, null, null), 0, LIMIT))
+                .isEmpty();
+        assertThat(bookCategoryIndex.match(getFilter(null, null, new Long[]{99L}), 0, LIMIT))
+                .hasSize(5);
+    }
+
+    @Test
+    @DisplayName("Verify that offset and limit page through the matches")
+    void match_OffsetAndLimit_ReturnsPage() {
+        CategoryFilterDto filter = getFilter(null, new Long[]{FANTASY, SCI_FI}, null);
+
+        assertThat(bookCategoryIndex.match(filter, 1, 2)).containsExactly(2L, 3L);
+        assertThat(bookCategoryIndex.match(filter, 3, 2)).containsExactly(4L);
+        assertThat(bookCategoryIndex.match(filter, 4, 2)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Verify that queries do not change the bitmaps they start from")
+    void match_RepeatedQueries_LeavesIndexIntact() {
+        bookCategoryIndex.match(getFilter(new Long[]{FANTASY}, null, new Long[]{CLASSIC}),
+                0, LIMIT);
+        bookCategoryIndex.match(getFilter(null, null, new Long[]{FANTASY}), 0, LIMIT);
+
+        assertThat(bookCategoryIndex.match(getFilter(new Long[]{FANTASY}, null, null), 0, LIMIT))
+                .containsExactly(1L, 2L);
+        assertThat(bookCategoryIndex.match(new CategoryFilterDto(), 0, LIMIT)).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("Verify that a recategorized book moves and a removed book disappears")
+    void addAndRemove_ChangedBooks_UpdatesBitmaps() {
+        bookCategoryIndex.add(getBook(2L, SCI_FI));
+        bookCategoryIndex.remove(4L);
+
+        assertThat(bookCategoryIndex.match(getFilter(new Long[]{FANTASY}, null, null), 0, LIMIT))
+                .containsExactly(1L);
+        assertThat(bookCategoryIndex.match(getFilter(new Long[]{SCI_FI}, null, null), 0, LIMIT))
+                .containsExactly(2L, 3L);
+        assertThat(bookCategoryIndex.match(new CategoryFilterDto(), 0, LIMIT))
+                .containsExactly(1L, 2L, 3L, 5L);
+    }
+
+    @Test
+    @DisplayName("Verify that a deleted category no longer matches and its books stay")
+    void removeCategory_DeletedCategory_ForgetsCategory() {
+        bookCategoryIndex.removeCategory(CLASSIC);
+
+        assertThat(bookCategoryIndex.match(getFilter(new Long[]{CLASSIC}, null, null), 0, LIMIT))
+                .isEmpty();
+        assertThat(bookCategoryIndex.match(new CategoryFilterDto(), 0, LIMIT)).hasSize(5);
+
+        bookCategoryIndex.remove(1L);
+        assertThat(bookCategoryIndex.match(getFilter(new Long[]{FANTASY}, null, null), 0, LIMIT))
+                .containsExactly(2L);
+    }
+
+    private CategoryFilterDto getFilter(Long[] all, Long[] any, Long[] none) {
+        CategoryFilterDto filter = new CategoryFilterDto();
+        filter.setAll(all);
+        filter.setAny(any);
+        filter.setNone(none);
+        return filter;
+    }
+
+    private Book getBook(Long id, Long... categoryIds) {
+        Book book = new Book();
+        book.setId(id);
+        book.setCategories(Arrays.stream(categoryIds)
+                .map(this::getCategory)
+                .collect(Collectors.toSet()));
+        return book;
+    }
+
+    private Category getCategory(Long id) {
+        Category category = new Category();
+        category.setId(id);
+        return category;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.bookstore.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.bookstore.dto.book.BookFacetsDto;
+import com.example.bookstore.dto.book.BookSearchParametersDto;
+import com.example.bookstore.dto.book.PriceBucketDto;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.Category;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BookFacetIndexTest {
+    private static final Long FANTASY_ID = 1L;
+    private static final Long CLASSICS_ID = 2L;
+
+    private BookFacetIndex bookFacetIndex;
+
+    @BeforeEach
+    void setUp() {
+        BookTrigramIndex bookTrigramIndex = new BookTrigramIndex();
+        bookFacetIndex = new BookFacetIndex(bookTrigramIndex, new BigDecimal[]{
+                BigDecimal.valueOf(20), BigDecimal.valueOf(10)});
+        List<Book> books = List.of(
+                getBook(1L, "The Hobbit", "J. R. R. Tolkien", 15, FANTASY_ID),
+                getBook(2L, "Dune", "Frank Herbert", 25, FANTASY_ID, CLASSICS_ID),
+                getBook(3L, "Jane Eyre", "Charlotte Brontë", 5, CLASSICS_ID));
+        bookTrigramIndex.rebuild(books);
+        bookFacetIndex.rebuild(books);
+    }
+
+    @Test
+    @DisplayName("Verify that one pass counts categories, authors and price buckets")
+    void facets_NoFilter_CountsEveryBook() {
+        BookFacetsDto actual = bookFacetIndex.facets(new BookSearchParametersDto());
+
+        assertThat(actual.getTotal()).isEqualTo(3);
+        assertThat(actual.getCategories()).isEqualTo(Map.of(FANTASY_ID, 2L, CLASSICS_ID, 2L));
+        assertThat(actual.getAuthors()).isEqualTo(Map.of("J. R. R. Tolkien", 1L,
+                "Frank Herbert", 1L, "Charlotte Brontë", 1L));
+        assertThat(actual.getPrices()).extracting(PriceBucketDto::getCount)
+                .containsExactly(1L, 1L, 1L);
+        assertThat(actual.getPrices().get(0).getFrom()).isNull();
+        assertThat(actual.getPrices().get(1).getFrom()).isEqualTo(BigDecimal.valueOf(10));
+        assertThat(actual.getPrices().get(2).getTo()).isNull();
+    }
+
+    @Test
+    @DisplayName("Verify that the author filter ignores case and accents like the database")
+    void facets_AuthorInOtherCaseAndAccents_MatchesBook() {
+        BookSearchParametersDto searchParameters = new BookSearchParametersDto();
+        searchParameters.setAuthors(new String[]{"frank HERBERT", "Charlotte Bronte"});
+
+        BookFacetsDto actual = bookFacetIndex.facets(searchParameters);
+
+        assertThat(actual.getTotal()).isEqualTo(2);
+        assertThat(actual.getAuthors()).isEqualTo(Map.of("Frank Herbert", 1L,
+                "Charlotte Brontë", 1L));
+    }
+
+    @Test
+    @DisplayName("Verify that price and fuzzy filters narrow the counts")
+    void facets_PriceAndFuzzyFilters_CountsMatchesOnly() {
+        BookSearchParametersDto searchParameters = new BookSearchParametersDto();
+        searchParameters.setFromPrice(BigDecimal.TEN);
+        searchParameters.setFuzzy(new String[]{"hobit", "jane"});
+
+        BookFacetsDto actual = bookFacetIndex.facets(searchParameters);
+
+        assertThat(actual.getTotal()).isEqualTo(1);
+        assertThat(actual.getCategories()).isEqualTo(Map.of(FANTASY_ID, 1L));
+    }
+
+    @Test
+    @DisplayName("Verify that a deleted category disappears from the counts")
+    void removeCategory_DeletedCategory_IsNoLongerCounted() {
+        bookFacetIndex.removeCategory(CLASSICS_ID);
+
+        BookFacetsDto actual = bookFacetIndex.facets(new BookSearchParametersDto());
+
+        assertThat(actual.getTotal()).isEqualTo(3);
+        assertThat(actual.getCategories()).isEqualTo(Map.of(FANTASY_ID, 2L));
+    }
+
+    @Test
+    @DisplayName("Verify that removed and updated books are counted by their new state")
+    void addAndRemove_ChangedBooks_UpdatesCounts() {
+        bookFacetIndex.remove(3L);
+        bookFacetIndex.add(getBook(2L, "Dune", "Frank Herbert", 55, CLASSICS_ID));
+
+        BookFacetsDto actual = bookFacetIndex.facets(new BookSearchParametersDto());
+
+        assertThat(actual.getTotal()).isEqualTo(2);
+        assertThat(actual.getCategories()).isEqualTo(Map.of(FANTASY_ID, 1L, CLASSICS_ID, 1L));
+        assertThat(actual.getPrices()).extracting(PriceBucketDto::getCount)
+                .containsExactly(0L, 1L, 1L);
+    }
+
+    @Test
+    @DisplayName("Verify that a rebuild replaces the previous snapshot")
+    void rebuild_NewBooks_DropsOldRows() {
+        bookFacetIndex.rebuild(List.of(getBook(4L, "Emma", "Jane Austen", 12, CLASSICS_ID)));
+
+        BookFacetsDto actual = bookFacetIndex.facets(new BookSearchParametersDto());
+
+        assertThat(actual.getTotal()).isEqualTo(1);
+        assertThat(actual.getAuthors()).isEqualTo(Map.of("Jane Austen", 1L));
+    }
+
+    private Book getBook(Long id, String title, String author, long price, Long... categoryIds) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setPrice(BigDecimal.valueOf(price));
+        book.setCategories(new HashSet<>(Arrays.stream(categoryIds)
+                .map(categoryId -> {
+                    Category category = new Category();
+                    category.setId(categoryId);
+                    return category;
+                })
+                .toList()));
+        return book;
+    }
+}
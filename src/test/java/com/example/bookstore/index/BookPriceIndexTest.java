@@ -0,0 +1,80 @@
+package com.example.bookstore.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.bookstore.model.Book;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BookPriceIndexTest {
+    private static final int LIMIT = 10;
+
+    private BookPriceIndex bookPriceIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookPriceIndex = new BookPriceIndex();
+        bookPriceIndex.rebuild(List.of(
+                getBook(4L, "20.00"),
+                getBook(1L, "10.00"),
+                getBook(3L, "10.01"),
+                getBook(2L, "10.01"),
+                getBook(5L, "35.50")));
+    }
+
+    @Test
+    @DisplayName("Verify that open bounds return every book, cheapest first and by id")
+    void findIds_OpenBounds_ReturnsAllInPriceThenIdOrder() {
+        assertThat(bookPriceIndex.findIds(null, null, 0, LIMIT))
+                .containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    @DisplayName("Verify that both bounds are exclusive")
+    void findIds_ExactBounds_ExcludesBoundPrices() {
+        assertThat(bookPriceIndex.findIds(new BigDecimal("10.00"), new BigDecimal("20"), 0, LIMIT))
+                .containsExactly(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Verify that bounds finer than a cent still compare exactly")
+    void findIds_SubCentBounds_ComparesExactly() {
+        assertThat(bookPriceIndex.findIds(new BigDecimal("10.005"), null, 0, LIMIT))
+                .containsExactly(2L, 3L, 4L, 5L);
+        assertThat(bookPriceIndex.findIds(null, new BigDecimal("20.001"), 0, LIMIT))
+                .containsExactly(1L, 2L, 3L, 4L);
+        assertThat(bookPriceIndex.findIds(new BigDecimal("9.999"), new BigDecimal("10.001"),
+                0, LIMIT)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Verify that offset and limit page through the band")
+    void findIds_OffsetAndLimit_ReturnsPage() {
+        assertThat(bookPriceIndex.findIds(BigDecimal.ONE, null, 1, 2)).containsExactly(2L, 3L);
+        assertThat(bookPriceIndex.findIds(BigDecimal.ONE, null, 4, 2)).containsExactly(5L);
+        assertThat(bookPriceIndex.findIds(BigDecimal.ONE, null, 5, 2)).isEmpty();
+        assertThat(bookPriceIndex.findIds(new BigDecimal("40"), BigDecimal.TEN, 0, 2)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Verify that a repriced book moves and a removed book disappears")
+    void addAndRemove_ChangedBooks_KeepsOrder() {
+        bookPriceIndex.add(getBook(1L, "10.01"));
+        bookPriceIndex.add(getBook(6L, "5"));
+        bookPriceIndex.remove(4L);
+        bookPriceIndex.remove(99L);
+
+        assertThat(bookPriceIndex.findIds(null, null, 0, LIMIT))
+                .containsExactly(6L, 1L, 2L, 3L, 5L);
+    }
+
+    private Book getBook(Long id, String price) {
+        Book book = new Book();
+        book.setId(id);
+        book.setPrice(new BigDecimal(price));
+        return book;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.bookstore.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.bookstore.model.Book;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BookSuggestIndexTest {
+    private static final int LIMIT = 10;
+
+    private BookSuggestIndex bookSuggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookSuggestIndex = new BookSuggestIndex();
+        bookSuggestIndex.rebuild(List.of(
+                getBook(1L, "Dune", "Frank Herbert"),
+                getBook(2L, "Dune Messiah", "Frank Herbert"),
+                getBook(3L, "The Hobbit", "J. R. R. Tolkien")));
+    }
+
+    @Test
+    @DisplayName("Verify that a prefix completes titles in key order, ignoring case")
+    void suggest_TitlePrefix_ReturnsTitlesInOrder() {
+        assertThat(bookSuggestIndex.suggest("DU", LIMIT)).containsExactly("Dune", "Dune Messiah");
+    }
+
+    @Test
+    @DisplayName("Verify that a prefix also completes a word inside a phrase")
+    void suggest_PrefixOfInnerWord_ReturnsWholePhrase() {
+        assertThat(bookSuggestIndex.suggest("tolk", LIMIT)).containsExactly("J. R. R. Tolkien");
+        assertThat(bookSuggestIndex.suggest("mess", LIMIT)).containsExactly("Dune Messiah");
+        assertThat(bookSuggestIndex.suggest("obbit", LIMIT)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Verify that a phrase shared by several books is suggested once")
+    void suggest_SharedAuthor_ReturnsItOnce() {
+        assertThat(bookSuggestIndex.suggest("frank", LIMIT)).containsExactly("Frank Herbert");
+    }
+
+    @Test
+    @DisplayName("Verify that the limit bounds the suggestions")
+    void suggest_MoreMatchesThanLimit_ReturnsLimit() {
+        assertThat(bookSuggestIndex.suggest("d", 1)).containsExactly("Dune");
+        assertThat(bookSuggestIndex.suggest("d", 0)).isEmpty();
+        assertThat(bookSuggestIndex.suggest(" ", LIMIT)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Verify that a shared phrase stays until its last book is removed")
+    void remove_OneOfTwoBooks_KeepsSharedAuthor() {
+        bookSuggestIndex.remove(1L);
+        assertThat(bookSuggestIndex.suggest("herb", LIMIT)).containsExactly("Frank Herbert");
+        assertThat(bookSuggestIndex.suggest("du", LIMIT)).containsExactly("Dune Messiah");
+
+        bookSuggestIndex.remove(2L);
+        assertThat(bookSuggestIndex.suggest("herb", LIMIT)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Verify that an updated book is suggested by its new title only")
+    void add_UpdatedBook_ReplacesOldPhrases() {
+        bookSuggestIndex.add(getBook(3L, "The Silmarillion", "J. R. R. Tolkien"));
+
+        assertThat(bookSuggestIndex.suggest("hob", LIMIT)).isEmpty();
+        assertThat(bookSuggestIndex.suggest("the", LIMIT)).containsExactly("The Silmarillion");
+    }
+
+    private Book getBook(Long id, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        return book;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bookstore.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.bookstore.model.Book;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+public class BookTextIndexTest {
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+    private BookTextIndex bookTextIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookTextIndex = new BookTextIndex();
+        bookTextIndex.rebuild(List.of(
+                getBook(1L, "The Hobbit", "Tolkien", "A hobbit goes on an adventure"),
+                getBook(2L, "Dune", "Herbert", "Adventure on a desert planet"),
+                getBook(3L, "Adventure Time", "Pendleton", null)));
+    }
+
+    @Test
+    @DisplayName("Verify that a title match ranks above a description match")
+    void search_SingleTerm_RanksByFieldWeight() {
+        assertThat(bookTextIndex.search("adventure", FIRST_PAGE)).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Verify that scores of several terms add up and rare terms weigh more")
+    void search_SeveralTerms_SumsScores() {
+        assertThat(bookTextIndex.search("dune adventure", FIRST_PAGE))
+                .containsExactly(2L, 3L, 1L);
+        assertThat(bookTextIndex.search("adventure adventure", FIRST_PAGE))
+                .isEqualTo(bookTextIndex.search("adventure", FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("Verify that queries ignore case and punctuation")
+    void search_MixedCaseQuery_MatchesTerms() {
+        assertThat(bookTextIndex.search("HOBBIT!", FIRST_PAGE)).containsExactly(1L);
+        assertThat(bookTextIndex.search("tolkien's", FIRST_PAGE)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Verify that blank and unknown queries match nothing")
+    void search_NoKnownTerms_ReturnsEmpty() {
+        assertThat(bookTextIndex.search("  ", FIRST_PAGE)).isEmpty();
+        assertThat(bookTextIndex.search(null, FIRST_PAGE)).isEmpty();
+        assertThat(bookTextIndex.search("silmarillion", FIRST_PAGE)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Verify that the page bounds the ranked ids")
+    void search_Pageable_ReturnsRequestedPage() {
+        assertThat(bookTextIndex.search("adventure", PageRequest.of(1, 1))).containsExactly(1L);
+        assertThat(bookTextIndex.search("adventure", PageRequest.of(1, 2))).containsExactly(2L);
+        assertThat(bookTextIndex.search("adventure", Pageable.unpaged())).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Verify that an updated book loses its old terms and a removed book disappears")
+    void addAndRemove_ChangedBooks_UpdatesPostings() {
+        bookTextIndex.add(getBook(1L, "The Silmarillion", "Tolkien", null));
+        bookTextIndex.remove(2L);
+
+        assertThat(bookTextIndex.search("hobbit", FIRST_PAGE)).isEmpty();
+        assertThat(bookTextIndex.search("silmarillion", FIRST_PAGE)).containsExactly(1L);
+        assertThat(bookTextIndex.search("adventure", FIRST_PAGE)).containsExactly(3L);
+    }
+
+    private Book getBook(Long id, String title, String author, String description) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setDescription(description);
+        return book;
+    }
+}
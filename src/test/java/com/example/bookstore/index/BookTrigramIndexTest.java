@@ -0,0 +1,102 @@
+package com.example.bookstore.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.bookstore.model.Book;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BookTrigramIndexTest {
+    private BookTrigramIndex bookTrigramIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookTrigramIndex = new BookTrigramIndex();
+        bookTrigramIndex.rebuild(List.of(
+                getBook(1L, "The Hobbit", "J. R. R. Tolkien"),
+                getBook(2L, "Dune", "Frank Herbert"),
+                getBook(3L, "The Silmarillion", "Christopher Tolkin")));
+    }
+
+    @Test
+    @DisplayName("Verify that a misspelled title word finds the book")
+    void match_MisspelledWord_ReturnsBook() {
+        List<Long> actual = bookTrigramIndex.match(new String[]{"silmarilion"});
+
+        assertThat(actual).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Verify that matches are ordered closest first, then by id")
+    void match_SeveralDistances_ReturnsClosestFirst() {
+        List<Long> actual = bookTrigramIndex.match(new String[]{"tolkin"});
+
+        assertThat(actual).containsExactly(3L, 1L);
+    }
+
+    @Test
+    @DisplayName("Verify that every word of a query has to match")
+    void match_OneWordMissing_ReturnsNothing() {
+        assertThat(bookTrigramIndex.match(new String[]{"hobit tolkien"})).containsExactly(1L);
+        assertThat(bookTrigramIndex.match(new String[]{"hobit herbert"})).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Verify that any of several queries may match")
+    void match_SeveralQueries_ReturnsUnion() {
+        List<Long> actual = bookTrigramIndex.match(new String[]{"dume", "hobbit"});
+
+        assertThat(actual).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Verify that short words have to match exactly")
+    void match_ShortWordWithTypo_ReturnsNothing() {
+        bookTrigramIndex.add(getBook(4L, "It", "Stephen King"));
+
+        assertThat(bookTrigramIndex.match(new String[]{"it"})).containsExactly(4L);
+        assertThat(bookTrigramIndex.match(new String[]{"ut"})).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Verify that the index returns every match without a cap")
+    void match_ManyMatches_ReturnsAll() {
+        List<Book> books = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            books.add(getBook(id, "Dune " + id, "Frank Herbert"));
+        }
+        bookTrigramIndex.rebuild(books);
+
+        assertThat(bookTrigramIndex.match(new String[]{"herbret"})).hasSize(2000);
+    }
+
+    @Test
+    @DisplayName("Verify that an updated book is found by its new words only")
+    void add_UpdatedBook_ReplacesOldWords() {
+        bookTrigramIndex.add(getBook(2L, "Children of Dune", "Frank Herbert"));
+        bookTrigramIndex.add(getBook(2L, "Emma", "Jane Austen"));
+
+        assertThat(bookTrigramIndex.match(new String[]{"herbert"})).isEmpty();
+        assertThat(bookTrigramIndex.match(new String[]{"austin"})).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Verify that a removed book is no longer matched")
+    void remove_ExistingBook_IsNoLongerMatched() {
+        bookTrigramIndex.remove(1L);
+
+        assertThat(bookTrigramIndex.match(new String[]{"hobbit"})).isEmpty();
+        assertThat(bookTrigramIndex.match(new String[]{"tolkin"})).containsExactly(3L);
+    }
+
+    private Book getBook(Long id, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        return book;
+    }
+}
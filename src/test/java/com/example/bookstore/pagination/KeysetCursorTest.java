@@ -0,0 +1,73 @@
+package com.example.bookstore.pagination;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.bookstore.exception.InvalidCursorException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class KeysetCursorTest {
+    @Test
+    @DisplayName("Verify that a cursor survives an encode and decode round trip")
+    void decode_EncodedCursor_RestoresPosition() {
+        KeysetCursor cursor = KeysetCursor.after(KeysetCursor.SortKey.TITLE, 42L, "Dune: Messiah");
+
+        KeysetCursor actual = KeysetCursor.decode(cursor.encode());
+
+        assertThat(actual.getSortKey()).isEqualTo(KeysetCursor.SortKey.TITLE);
+        assertThat(actual.getLastId()).isEqualTo(42L);
+        assertThat(actual.getLastValue()).isEqualTo("Dune: Messiah");
+    }
+
+    @Test
+    @DisplayName("Verify that a price cursor keeps the exact price")
+    void getLastPrice_PriceCursor_ReturnsDecimal() {
+        KeysetCursor cursor = KeysetCursor.after(
+                KeysetCursor.SortKey.PRICE, 7L, new BigDecimal("40.50"));
+
+        assertThat(KeysetCursor.decode(cursor.encode()).getLastPrice())
+                .isEqualTo(new BigDecimal("40.50"));
+    }
+
+    @Test
+    @DisplayName("Verify that the first cursor starts before every row")
+    void first_SortName_StartsBeforeLowestValue() {
+        KeysetCursor byPrice = KeysetCursor.first("Price");
+        KeysetCursor byTitle = KeysetCursor.first("title");
+
+        assertThat(byPrice.getSortKey()).isEqualTo(KeysetCursor.SortKey.PRICE);
+        assertThat(byPrice.getLastId()).isZero();
+        assertThat(byPrice.getLastPrice()).isNegative();
+        assertThat(byTitle.getLastValue()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Verify that an unknown sort key is rejected")
+    void first_UnknownSortKey_ThrowsException() {
+        assertThatThrownBy(() -> KeysetCursor.first("author"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @DisplayName("Verify that tampered tokens are rejected instead of failing later")
+    void decode_MalformedToken_ThrowsException() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not base64!"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("title:1")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("title:one:Dune")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("price:1:cheap")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("author:1:Tolkien")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private String encode(String raw) {
+        return Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.bookstore.repository;
 
-import com.example.bookstore.model.Book;
+import com.example.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.example.bookstore.dto.book.BookVersionDto;
 import com.example.bookstore.repository.book.BookRepository;
 import java.util.Collections;
 import java.util.List;
@@ -22,6 +23,8 @@ import org.springframework.test.context.junit4.SpringRunner;
 public class BookRepositoryTest {
     private static final Long EXISTING_CATEGORY_ID = 1L;
     private static final Long NON_EXISTING_CATEGORY_ID = 100L;
+    private static final Long EXISTING_BOOK_ID = 1L;
+    private static final Long NON_EXISTING_BOOK_ID = 100L;
     @Autowired
     private BookRepository bookRepository;
 
@@ -41,7 +44,8 @@ public class BookRepositoryTest {
             }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
     public void findAllByCategoryId_ExistingCategoryId_ReturnsListCategories() {
         Pageable pageable = PageRequest.of(0, 10);
-        List<Book> actual = bookRepository.findAllByCategoryId(EXISTING_CATEGORY_ID, pageable);
+        List<BookDtoWithoutCategoryIds> actual =
+                bookRepository.findAllByCategoryId(EXISTING_CATEGORY_ID, pageable);
         Assertions.assertEquals(1, actual.size());
         Assertions.assertEquals("title1", actual.get(0).getTitle());
     }
@@ -62,7 +66,27 @@ public class BookRepositoryTest {
             }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
     public void findAllByCategoryId_NonExistingId_ReturnsEmptyList() {
         Pageable pageable = PageRequest.of(0, 10);
-        List<Book> actual = bookRepository.findAllByCategoryId(NON_EXISTING_CATEGORY_ID, pageable);
+        List<BookDtoWithoutCategoryIds> actual =
+                bookRepository.findAllByCategoryId(NON_EXISTING_CATEGORY_ID, pageable);
         Assertions.assertEquals(Collections.emptyList(), actual);
     }
+
+    @Test
+    @DisplayName("Verify that the versions of a book and its categories are read at once")
+    @Sql(scripts = {
+            "classpath:database/fill-books-table.sql",
+            "classpath:database/fill-categories-table.sql",
+            "classpath:database/fill-books-categories-table.sql"
+            }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = {
+            "classpath:database/delete-from-books-table.sql",
+            "classpath:database/delete-from-categories-table.sql",
+            "classpath:database/delete-from-books-categories-table.sql"
+            }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void findVersionsById_BookWithCategory_ReturnsBookAndCategoryVersion() {
+        List<BookVersionDto> actual = bookRepository.findVersionsById(EXISTING_BOOK_ID);
+        Assertions.assertEquals(List.of(new BookVersionDto(0L, 0L)), actual);
+        Assertions.assertEquals(Collections.emptyList(),
+                bookRepository.findVersionsById(NON_EXISTING_BOOK_ID));
+    }
 }
@@ -6,21 +6,38 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import com.example.bookstore.cache.CacheNames;
+import com.example.bookstore.cache.MissingEntityCache;
 import com.example.bookstore.dto.book.BookDto;
 import com.example.bookstore.dto.book.BookDtoWithoutCategoryIds;
 import com.example.bookstore.dto.book.BookSearchParametersDto;
+import com.example.bookstore.dto.book.BookVersionDto;
 import com.example.bookstore.dto.book.CreateBookRequestDto;
+import com.example.bookstore.dto.page.CursorPageDto;
 import com.example.bookstore.exception.EntityNotFoundException;
+import com.example.bookstore.exception.InvalidCursorException;
+import com.example.bookstore.exception.OutOfStockException;
+import com.example.bookstore.index.BookCategoryIndex;
+import com.example.bookstore.index.BookFacetIndex;
+import com.example.bookstore.index.BookPriceIndex;
+import com.example.bookstore.index.BookSuggestIndex;
+import com.example.bookstore.index.BookTextIndex;
+import com.example.bookstore.index.BookTrigramIndex;
 import com.example.bookstore.mapper.BookMapper;
 import com.example.bookstore.model.Book;
+import com.example.bookstore.pagination.KeysetCursor;
 import com.example.bookstore.repository.book.BookRepository;
 import com.example.bookstore.repository.book.BookSpecificationBuilder;
 import com.example.bookstore.service.book.impl.BookServiceImpl;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -29,11 +46,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 public class BookServiceTest {
@@ -45,6 +63,22 @@ public class BookServiceTest {
     private BookMapper bookMapper;
     @Mock
     private BookSpecificationBuilder bookSpecificationBuilder;
+    @Mock
+    private BookTextIndex bookTextIndex;
+    @Mock
+    private BookFacetIndex bookFacetIndex;
+    @Mock
+    private BookSuggestIndex bookSuggestIndex;
+    @Mock
+    private BookPriceIndex bookPriceIndex;
+    @Mock
+    private BookCategoryIndex bookCategoryIndex;
+    @Mock
+    private BookTrigramIndex bookTrigramIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private MissingEntityCache missingEntityCache;
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -67,6 +101,8 @@ public class BookServiceTest {
         bookDtoWithoutCategoryIds = getBookDtoWithoutCategoryIds();
         updatedBookDto = getUpdatedBookDto();
         bookSearchParametersDto = getBookSearchParametersDto();
+        ReflectionTestUtils.setField(bookService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(bookService, "maxSearchResults", 1000L);
     }
 
     @Test
@@ -93,9 +129,9 @@ public class BookServiceTest {
             "Verify that the update method is working correctly"
     )
     void update_ValidCreateBookRequestDto_ReturnsBookDto() {
-        Mockito.when(bookRepository.findById(EXISTING_ID)).thenReturn(Optional.of(book));
-        Mockito.when(bookMapper.toEntity(updateBookRequestDto)).thenReturn(updatedBook);
-        Mockito.when(bookRepository.save(updatedBook)).thenReturn(updatedBook);
+        Mockito.when(bookRepository.findWithCategoriesById(EXISTING_ID))
+                .thenReturn(Optional.of(book));
+        Mockito.when(bookRepository.save(book)).thenReturn(updatedBook);
         Mockito.when(bookMapper.toDto(updatedBook)).thenReturn(updatedBookDto);
 
         BookDto expected = updatedBookDto;
@@ -103,9 +139,9 @@ public class BookServiceTest {
         BookDto actual = bookService.updateById(EXISTING_ID, updateBookRequestDto);
 
         assertThat(actual).isEqualTo(expected);
-        verify(bookRepository, times(1)).findById(EXISTING_ID);
-        verify(bookMapper, times(1)).toEntity(updateBookRequestDto);
-        verify(bookRepository, times(1)).save(updatedBook);
+        verify(bookRepository, times(1)).findWithCategoriesById(EXISTING_ID);
+        verify(bookMapper, times(1)).updateBook(updateBookRequestDto, book);
+        verify(bookRepository, times(1)).save(book);
         verify(bookMapper, times(1)).toDto(updatedBook);
         verifyNoMoreInteractions(bookRepository, bookMapper);
     }
@@ -115,7 +151,8 @@ public class BookServiceTest {
             "Verify that the update method is working correctly with non existing book id"
     )
     void update_NonExistingBookId_ThrowsException() {
-        Mockito.when(bookRepository.findById(NON_EXISTING_ID)).thenReturn(Optional.empty());
+        Mockito.when(bookRepository.findWithCategoriesById(NON_EXISTING_ID))
+                .thenReturn(Optional.empty());
 
         Exception exception = assertThrows(EntityNotFoundException.class,
                 () -> bookService.updateById(NON_EXISTING_ID, updateBookRequestDto));
@@ -123,7 +160,7 @@ public class BookServiceTest {
         String expected = "Can not found Book by id = " + NON_EXISTING_ID;
         String actual = exception.getMessage();
         assertThat(actual).isEqualTo(expected);
-        verify(bookRepository, times(1)).findById(NON_EXISTING_ID);
+        verify(bookRepository, times(1)).findWithCategoriesById(NON_EXISTING_ID);
         verifyNoMoreInteractions(bookRepository);
     }
 
@@ -144,6 +181,55 @@ public class BookServiceTest {
         verifyNoMoreInteractions(bookRepository, bookMapper);
     }
 
+    @Test
+    @DisplayName("Verify that the version tag covers the versions of the book's categories")
+    void findVersionTagById_BookWithCategories_ReturnsBookAndCategoryVersions() {
+        Mockito.when(bookRepository.findVersionsById(EXISTING_ID)).thenReturn(List.of(
+                new BookVersionDto(3L, 0L), new BookVersionDto(3L, 2L)));
+
+        assertThat(bookService.findVersionTagById(EXISTING_ID)).contains("3-0.2");
+        verify(bookRepository, times(1)).findVersionsById(EXISTING_ID);
+        verifyNoMoreInteractions(bookRepository);
+    }
+
+    @Test
+    @DisplayName("Verify that the version tag of a book without categories is its own version")
+    void findVersionTagById_BookWithoutCategories_ReturnsBookVersion() {
+        Mockito.when(bookRepository.findVersionsById(EXISTING_ID))
+                .thenReturn(List.of(new BookVersionDto(3L, null)));
+
+        assertThat(bookService.findVersionTagById(EXISTING_ID)).contains("3-");
+    }
+
+    @Test
+    @DisplayName("Verify that the version tag of a missing book is empty")
+    void findVersionTagById_NonExistingBookId_ReturnsEmpty() {
+        Mockito.when(bookRepository.findVersionsById(NON_EXISTING_ID)).thenReturn(List.of());
+
+        assertThat(bookService.findVersionTagById(NON_EXISTING_ID)).isEmpty();
+        verify(missingEntityCache, times(1)).markMissing(CacheNames.MISSING_BOOKS, NON_EXISTING_ID);
+        verifyNoMoreInteractions(bookRepository);
+    }
+
+    @Test
+    @DisplayName("Verify that adjusting the stock of an unknown book throws an exception")
+    void adjustStock_NonExistingBookId_ThrowsException() {
+        Mockito.when(bookRepository.adjustStock(NON_EXISTING_ID, 5)).thenReturn(false);
+        Mockito.when(bookRepository.existsById(NON_EXISTING_ID)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class,
+                () -> bookService.adjustStock(NON_EXISTING_ID, 5));
+    }
+
+    @Test
+    @DisplayName("Verify that removing more units than the book has left is refused")
+    void adjustStock_NotEnoughStock_ThrowsException() {
+        Mockito.when(bookRepository.adjustStock(EXISTING_ID, -5)).thenReturn(false);
+        Mockito.when(bookRepository.existsById(EXISTING_ID)).thenReturn(true);
+
+        assertThrows(OutOfStockException.class, () -> bookService.adjustStock(EXISTING_ID, -5));
+    }
+
     @Test
     @DisplayName(
             "Verify that the find by id method is working correctly with non existing book id"
@@ -157,6 +243,57 @@ public class BookServiceTest {
         String expected = "Can`t get book by id:" + NON_EXISTING_ID;
         String actual = exception.getMessage();
         assertThat(actual).isEqualTo(expected);
+        verify(missingEntityCache, times(1)).markMissing(CacheNames.MISSING_BOOKS, NON_EXISTING_ID);
+    }
+
+    @Test
+    @DisplayName(
+            "Verify that the find by id method skips the database for a known missing book id"
+    )
+    void findById_KnownMissingBookId_ThrowsExceptionWithoutQuery() {
+        Mockito.when(missingEntityCache.isMissing(CacheNames.MISSING_BOOKS, NON_EXISTING_ID))
+                .thenReturn(true);
+
+        Exception exception = assertThrows(EntityNotFoundException.class,
+                () -> bookService.findById(NON_EXISTING_ID));
+
+        String expected = "Can`t get book by id:" + NON_EXISTING_ID;
+        String actual = exception.getMessage();
+        assertThat(actual).isEqualTo(expected);
+        verifyNoInteractions(bookRepository, bookMapper);
+    }
+
+    @Test
+    @DisplayName(
+            "Verify that concurrent find by id calls for one book share a single load"
+    )
+    void findById_ConcurrentCalls_LoadsBookOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(bookRepository.findById(EXISTING_ID)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(book);
+        });
+        Mockito.when(bookMapper.toDto(book)).thenReturn(bookDto);
+
+        CompletableFuture<BookDto> leader = new CompletableFuture<>();
+        CompletableFuture<BookDto> follower = new CompletableFuture<>();
+        Thread leaderThread = new Thread(() -> leader.complete(bookService.findById(EXISTING_ID)));
+        leaderThread.start();
+        loading.await();
+        Thread followerThread = new Thread(
+                () -> follower.complete(bookService.findById(EXISTING_ID)));
+        followerThread.start();
+        while (followerThread.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThat(leader.get()).isEqualTo(bookDto);
+        assertThat(follower.get()).isSameAs(leader.get());
+        verify(bookRepository, times(1)).findById(EXISTING_ID);
+        verify(bookMapper, times(1)).toDto(book);
     }
 
     @Test
@@ -165,18 +302,16 @@ public class BookServiceTest {
     )
     void findAll_ExistingBooks_ReturnsListBookDtoWithoutCategoryIds() {
         Pageable pageable = PageRequest.of(0, 10);
-        List<Book> books = List.of(book);
-        Page<Book> bookPage = new PageImpl<>(books, pageable, books.size());
 
-        Mockito.when(bookRepository.findAll(pageable)).thenReturn(bookPage);
-        Mockito.when(bookMapper.toDtoWithoutCategories(book)).thenReturn(bookDtoWithoutCategoryIds);
+        Mockito.when(bookRepository.findAllWithoutCategoryIdsBy(pageable))
+                .thenReturn(List.of(bookDtoWithoutCategoryIds));
 
         List<BookDtoWithoutCategoryIds> expected = List.of(bookDtoWithoutCategoryIds);
         List<BookDtoWithoutCategoryIds> actual = bookService.findAll(pageable);
         assertThat(actual).isEqualTo(expected);
-        verify(bookRepository, times(1)).findAll(pageable);
-        verify(bookMapper, times(1)).toDtoWithoutCategories(book);
-        verifyNoMoreInteractions(bookRepository, bookMapper);
+        verify(bookRepository, times(1)).findAllWithoutCategoryIdsBy(pageable);
+        verifyNoMoreInteractions(bookRepository);
+        verifyNoInteractions(bookMapper);
     }
 
     @Test
@@ -193,18 +328,17 @@ public class BookServiceTest {
     )
     void findAllByCategoryId_ExistingCategoryId_ReturnsListBookWithoutCategoryIds() {
         Pageable pageable = PageRequest.of(0, 10);
-        List<Book> books = List.of(book);
 
-        Mockito.when(bookRepository.findAllByCategoryId(EXISTING_ID, pageable)).thenReturn(books);
-        Mockito.when(bookMapper.toDtoWithoutCategories(book)).thenReturn(bookDtoWithoutCategoryIds);
+        Mockito.when(bookRepository.findAllByCategoryId(EXISTING_ID, pageable))
+                .thenReturn(List.of(bookDtoWithoutCategoryIds));
 
         List<BookDtoWithoutCategoryIds> expected = List.of(bookDtoWithoutCategoryIds);
         List<BookDtoWithoutCategoryIds> actual
                 = bookService.findAllByCategoryId(EXISTING_ID, pageable);
         assertThat(actual).isEqualTo(expected);
         verify(bookRepository, times(1)).findAllByCategoryId(EXISTING_ID, pageable);
-        verify(bookMapper, times(1)).toDtoWithoutCategories(book);
-        verifyNoMoreInteractions(bookRepository, bookMapper);
+        verifyNoMoreInteractions(bookRepository);
+        verifyNoInteractions(bookMapper);
     }
 
     @Test
@@ -212,22 +346,195 @@ public class BookServiceTest {
             "Verify that search method is working correctly"
     )
     void search_ValidBookSearchParametersDto_ReturnsListBookDto() {
+        Pageable pageable = PageRequest.of(0, 10);
         List<Book> books = List.of(book);
         Specification<Book> specification = Mockito.mock(Specification.class);
         Mockito.when(bookSpecificationBuilder.build(bookSearchParametersDto))
                 .thenReturn(specification);
-        Mockito.when(bookRepository.findAll(specification)).thenReturn(books);
+        Mockito.when(bookRepository.findIds(specification, Sort.unsorted(), 0, 10))
+                .thenReturn(List.of(EXISTING_ID));
+        Mockito.when(bookRepository.findAllWithCategoriesByIdIn(List.of(EXISTING_ID)))
+                .thenReturn(books);
         Mockito.when(bookMapper.toDto(book)).thenReturn(bookDto);
 
         List<BookDto> expected = List.of(bookDto);
-        List<BookDto> actual = bookService.search(bookSearchParametersDto);
+        List<BookDto> actual = bookService.search(bookSearchParametersDto, pageable);
         assertThat(actual).isEqualTo(expected);
-        verify(bookRepository, times(1)).findAll(specification);
+        verify(bookRepository, times(1)).findIds(specification, Sort.unsorted(), 0, 10);
+        verify(bookRepository, times(1)).findAllWithCategoriesByIdIn(List.of(EXISTING_ID));
         verify(bookMapper, times(1)).toDto(book);
         verify(bookSpecificationBuilder, times(1)).build(bookSearchParametersDto);
         verifyNoMoreInteractions(bookRepository, bookMapper, bookSpecificationBuilder);
     }
 
+    @Test
+    @DisplayName(
+            "Verify that search method returns nothing past the result limit"
+    )
+    void search_PageBeyondResultLimit_ReturnsEmptyList() {
+        Pageable pageable = PageRequest.of(100, 10);
+
+        List<BookDto> actual = bookService.search(bookSearchParametersDto, pageable);
+        assertThat(actual).isEmpty();
+        verifyNoMoreInteractions(bookRepository, bookSpecificationBuilder);
+    }
+
+    @Test
+    @DisplayName(
+            "Verify that a fuzzy search filters the closest matches before it caps them"
+    )
+    void search_FuzzyWithFilters_ReturnsFilteredMatchesClosestFirst() {
+        ReflectionTestUtils.setField(bookService, "fuzzyChunkSize", 2);
+        BookSearchParametersDto searchParameters = getBookSearchParametersDto();
+        searchParameters.setFuzzy(new String[]{"tolkein"});
+        Book secondBook = getUpdatedBook();
+        secondBook.setId(2L);
+        BookDto secondDto = getUpdatedBookDto();
+        Specification<Book> firstChunk = Mockito.mock(Specification.class);
+        Specification<Book> secondChunk = Mockito.mock(Specification.class);
+
+        Mockito.when(bookTrigramIndex.match(searchParameters.getFuzzy()))
+                .thenReturn(List.of(3L, EXISTING_ID, 2L, 4L));
+        Mockito.when(bookSpecificationBuilder.buildAmongIds(searchParameters,
+                List.of(3L, EXISTING_ID))).thenReturn(firstChunk);
+        Mockito.when(bookSpecificationBuilder.buildAmongIds(searchParameters, List.of(2L, 4L)))
+                .thenReturn(secondChunk);
+        Mockito.when(bookRepository.findIds(firstChunk, Sort.unsorted(), 0, 2))
+                .thenReturn(List.of(EXISTING_ID));
+        Mockito.when(bookRepository.findIds(secondChunk, Sort.unsorted(), 0, 2))
+                .thenReturn(List.of(2L));
+        Mockito.when(bookRepository.findAllWithCategoriesByIdIn(List.of(EXISTING_ID, 2L)))
+                .thenReturn(List.of(secondBook, book));
+        Mockito.when(bookMapper.toDto(book)).thenReturn(bookDto);
+        Mockito.when(bookMapper.toDto(secondBook)).thenReturn(secondDto);
+
+        List<BookDto> actual = bookService.search(searchParameters, PageRequest.of(0, 2));
+        assertThat(actual).isEqualTo(List.of(bookDto, secondDto));
+        verify(bookSpecificationBuilder, times(0)).build(searchParameters);
+    }
+
+    @Test
+    @DisplayName(
+            "Verify that a sorted fuzzy search carries only the best rows into the next chunk"
+    )
+    void search_SortedFuzzy_QueriesBoundedChunks() {
+        ReflectionTestUtils.setField(bookService, "fuzzyChunkSize", 2);
+        BookSearchParametersDto searchParameters = getBookSearchParametersDto();
+        searchParameters.setFuzzy(new String[]{"tolkein"});
+        Sort sort = Sort.by("title");
+        Specification<Book> firstChunk = Mockito.mock(Specification.class);
+        Specification<Book> secondChunk = Mockito.mock(Specification.class);
+
+        Mockito.when(bookTrigramIndex.match(searchParameters.getFuzzy()))
+                .thenReturn(List.of(3L, EXISTING_ID, 2L, 4L));
+        Mockito.when(bookSpecificationBuilder.buildAmongIds(searchParameters,
+                List.of(3L, EXISTING_ID))).thenReturn(firstChunk);
+        Mockito.when(bookSpecificationBuilder.buildAmongIds(searchParameters,
+                List.of(EXISTING_ID, 2L, 4L))).thenReturn(secondChunk);
+        Mockito.when(bookRepository.findIds(firstChunk, sort, 0, 1))
+                .thenReturn(List.of(EXISTING_ID));
+        Mockito.when(bookRepository.findIds(secondChunk, sort, 0, 1))
+                .thenReturn(List.of(EXISTING_ID));
+        Mockito.when(bookRepository.findAllWithCategoriesByIdIn(List.of(EXISTING_ID)))
+                .thenReturn(List.of(book));
+        Mockito.when(bookMapper.toDto(book)).thenReturn(bookDto);
+
+        List<BookDto> actual = bookService.search(searchParameters, PageRequest.of(0, 1, sort));
+        assertThat(actual).isEqualTo(List.of(bookDto));
+        verify(bookTrigramIndex, times(1)).match(searchParameters.getFuzzy());
+        verify(bookSpecificationBuilder, times(0)).build(searchParameters);
+    }
+
+    @Test
+    @DisplayName(
+            "Verify that a fuzzy stream matches once and queries one chunk of ids at a time"
+    )
+    void streamSearch_Fuzzy_QueriesMatchesInIdOrderByChunk() {
+        ReflectionTestUtils.setField(bookService, "streamChunkSize", 2);
+        ReflectionTestUtils.setField(bookService, "maxStreamResults", 100L);
+        BookSearchParametersDto searchParameters = getBookSearchParametersDto();
+        searchParameters.setFuzzy(new String[]{"tolkein"});
+        Specification<Book> firstChunk = Mockito.mock(Specification.class);
+        Specification<Book> secondChunk = Mockito.mock(Specification.class);
+
+        Mockito.when(bookTrigramIndex.match(searchParameters.getFuzzy()))
+                .thenReturn(List.of(3L, EXISTING_ID, 2L));
+        Mockito.when(bookSpecificationBuilder.buildAmongIds(searchParameters,
+                List.of(EXISTING_ID, 2L))).thenReturn(firstChunk);
+        Mockito.when(bookSpecificationBuilder.buildAmongIds(searchParameters, List.of(3L)))
+                .thenReturn(secondChunk);
+        Mockito.when(bookRepository.findBy(Mockito.eq(firstChunk), Mockito.any()))
+                .thenReturn(List.of(book));
+        Mockito.when(bookRepository.findBy(Mockito.eq(secondChunk), Mockito.any()))
+                .thenReturn(List.of(updatedBook));
+        Mockito.when(bookMapper.toDtoWithoutCategories(book))
+                .thenReturn(bookDtoWithoutCategoryIds);
+        Mockito.when(bookMapper.toDtoWithoutCategories(updatedBook))
+                .thenReturn(bookDtoWithoutCategoryIds);
+
+        List<BookDtoWithoutCategoryIds> actual = new ArrayList<>();
+        bookService.streamSearch(searchParameters, actual::add);
+        assertThat(actual).hasSize(2);
+        verify(bookTrigramIndex, times(1)).match(searchParameters.getFuzzy());
+        verify(bookSpecificationBuilder, times(0)).buildAfterId(Mockito.any(), anyLong());
+    }
+
+    @Test
+    @DisplayName(
+            "Verify that search by text hydrates only the ranked page of ids"
+    )
+    void searchByText_MatchingQuery_ReturnsBooksInRankOrder() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Book secondBook = getUpdatedBook();
+        secondBook.setId(2L);
+        BookDtoWithoutCategoryIds secondDto = new BookDtoWithoutCategoryIds();
+        secondDto.setId(2L);
+
+        Mockito.when(bookTextIndex.search("title", pageable)).thenReturn(List.of(2L, EXISTING_ID));
+        Mockito.when(bookRepository.findAllById(List.of(2L, EXISTING_ID)))
+                .thenReturn(List.of(book, secondBook));
+        Mockito.when(bookMapper.toDtoWithoutCategories(book)).thenReturn(bookDtoWithoutCategoryIds);
+        Mockito.when(bookMapper.toDtoWithoutCategories(secondBook)).thenReturn(secondDto);
+
+        List<BookDtoWithoutCategoryIds> expected = List.of(secondDto, bookDtoWithoutCategoryIds);
+        List<BookDtoWithoutCategoryIds> actual = bookService.searchByText("title", pageable);
+        assertThat(actual).isEqualTo(expected);
+        verify(bookRepository, times(1)).findAllById(List.of(2L, EXISTING_ID));
+        verifyNoMoreInteractions(bookRepository);
+    }
+
+    @Test
+    @DisplayName(
+            "Verify that find all by cursor returns a continuation token for the next page"
+    )
+    void findAllByCursor_MoreRowsThanPageSize_ReturnsNextCursor() {
+        BookDtoWithoutCategoryIds secondDto = getBookDtoWithoutCategoryIds();
+        secondDto.setId(2L);
+
+        Mockito.when(bookRepository.findPageAfterId(0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(bookDtoWithoutCategoryIds, secondDto));
+
+        CursorPageDto<BookDtoWithoutCategoryIds> actual = bookService.findAll("", "id", 1);
+        assertThat(actual.getContent()).isEqualTo(List.of(bookDtoWithoutCategoryIds));
+        assertThat(KeysetCursor.decode(actual.getNextCursor()).getLastId()).isEqualTo(EXISTING_ID);
+
+        Mockito.when(bookRepository.findPageAfterId(EXISTING_ID, PageRequest.of(0, 2)))
+                .thenReturn(List.of(secondDto));
+
+        CursorPageDto<BookDtoWithoutCategoryIds> last
+                = bookService.findAll(actual.getNextCursor(), "id", 1);
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName(
+            "Verify that find all by cursor rejects a malformed cursor"
+    )
+    void findAllByCursor_MalformedCursor_ThrowsException() {
+        assertThrows(InvalidCursorException.class,
+                () -> bookService.findAll("not-a-cursor", "id", 10));
+    }
+
     private CreateBookRequestDto getCreateBookRequestDto() {
         CreateBookRequestDto requestDto = new CreateBookRequestDto();
         requestDto.setTitle("title");
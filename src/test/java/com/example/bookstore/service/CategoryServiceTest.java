@@ -6,10 +6,15 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import com.example.bookstore.cache.CategorySnapshot;
+import com.example.bookstore.cache.EntityCacheEvictor;
+import com.example.bookstore.cache.MissingEntityCache;
 import com.example.bookstore.dto.category.CategoryDto;
 import com.example.bookstore.dto.category.CreateCategoryRequestDto;
+import com.example.bookstore.dto.category.VersionedCategoryDto;
 import com.example.bookstore.exception.EntityNotFoundException;
 import com.example.bookstore.mapper.CategoryMapper;
 import com.example.bookstore.model.Category;
@@ -25,8 +30,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
@@ -39,6 +43,14 @@ public class CategoryServiceTest {
     private CategoryRepository categoryRepository;
     @Mock
     private CategoryMapper categoryMapper;
+    @Mock
+    private EntityCacheEvictor entityCacheEvictor;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private CategorySnapshot categorySnapshot;
+    @Mock
+    private MissingEntityCache missingEntityCache;
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -65,18 +77,14 @@ public class CategoryServiceTest {
     )
     void findAll_ExistingCategories_ReturnsListCategories() {
         Pageable pageable = PageRequest.of(0, 10);
-        List<Category> categories = List.of(category);
-        Page<Category> page = new PageImpl<>(categories, pageable, categories.size());
 
-        Mockito.when(categoryRepository.findAll(pageable)).thenReturn(page);
-        Mockito.when(categoryMapper.toDto(category)).thenReturn(categoryDto);
+        Mockito.when(categoryRepository.findAllDtoBy(pageable)).thenReturn(List.of(categoryDto));
 
         List<CategoryDto> expected = List.of(categoryDto);
         List<CategoryDto> actual = categoryService.findAll(pageable);
 
         assertThat(actual).isEqualTo(expected);
-        verify(categoryRepository, times(1)).findAll(pageable);
-        verify(categoryMapper, times(1)).toDto(category);
+        verify(categoryRepository, times(1)).findAllDtoBy(pageable);
         verifyNoMoreInteractions(categoryRepository, categoryMapper);
     }
 
@@ -113,6 +121,70 @@ public class CategoryServiceTest {
         verifyNoMoreInteractions(categoryRepository);
     }
 
+    @Test
+    @DisplayName(
+            "Verify that the find all method reads the loaded category snapshot"
+    )
+    void findAll_SnapshotLoaded_ReturnsSnapshotCategories() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        Mockito.when(categorySnapshot.isLoaded()).thenReturn(true);
+        Mockito.when(categorySnapshot.findAll(pageable)).thenReturn(List.of(categoryDto));
+
+        List<CategoryDto> expected = List.of(categoryDto);
+        List<CategoryDto> actual = categoryService.findAll(pageable);
+
+        assertThat(actual).isEqualTo(expected);
+        verifyNoInteractions(categoryRepository, categoryMapper);
+    }
+
+    @Test
+    @DisplayName(
+            "Verify that the get by id method reads the loaded category snapshot"
+    )
+    void getById_SnapshotLoadedNonExistingId_ThrowsException() {
+        Mockito.when(categorySnapshot.isLoaded()).thenReturn(true);
+        Mockito.when(categorySnapshot.findById(NON_EXISTING_ID)).thenReturn(Optional.empty());
+
+        Exception exception = assertThrows(EntityNotFoundException.class,
+                () -> categoryService.getById(NON_EXISTING_ID));
+
+        String expected = "Can not found Category by id = " + NON_EXISTING_ID;
+        String actual = exception.getMessage();
+        assertThat(actual).isEqualTo(expected);
+        verifyNoInteractions(categoryRepository, categoryMapper);
+    }
+
+    @Test
+    @DisplayName(
+            "Verify that the version and the category come from the loaded snapshot"
+    )
+    void findVersionedById_SnapshotLoaded_ReadsSnapshotOnly() {
+        VersionedCategoryDto versioned = new VersionedCategoryDto(3L, categoryDto);
+        Mockito.when(categorySnapshot.isLoaded()).thenReturn(true);
+        Mockito.when(categorySnapshot.findVersionedById(EXISTING_ID))
+                .thenReturn(Optional.of(versioned));
+
+        Optional<VersionedCategoryDto> actual = categoryService.findVersionedById(EXISTING_ID);
+
+        assertThat(actual).contains(versioned);
+        verifyNoInteractions(categoryRepository, missingEntityCache);
+    }
+
+    @Test
+    @DisplayName(
+            "Verify that without the snapshot only the version is queried"
+    )
+    void findVersionedById_SnapshotNotLoaded_QueriesVersionOnly() {
+        Mockito.when(categoryRepository.findVersionById(EXISTING_ID)).thenReturn(Optional.of(3L));
+
+        Optional<VersionedCategoryDto> actual = categoryService.findVersionedById(EXISTING_ID);
+
+        assertThat(actual).contains(new VersionedCategoryDto(3L, null));
+        verify(categoryRepository, times(1)).findVersionById(EXISTING_ID);
+        verifyNoMoreInteractions(categoryRepository);
+    }
+
     @Test
     @DisplayName(
             "Verify that the save method is working correctly"
@@ -137,16 +209,15 @@ public class CategoryServiceTest {
     )
     void update_ExistingCategoryId_ReturnsCategoryDto() {
         Mockito.when(categoryRepository.findById(EXISTING_ID)).thenReturn(Optional.of(category));
-        Mockito.when(categoryMapper.toEntity(updateCategoryRequestDto)).thenReturn(updatedCategory);
-        Mockito.when(categoryRepository.save(updatedCategory)).thenReturn(updatedCategory);
+        Mockito.when(categoryRepository.save(category)).thenReturn(updatedCategory);
         Mockito.when(categoryMapper.toDto(updatedCategory)).thenReturn(updatedCategoryDto);
 
         CategoryDto expected = updatedCategoryDto;
         CategoryDto actual = categoryService.update(EXISTING_ID, updateCategoryRequestDto);
         assertThat(actual).isEqualTo(expected);
         verify(categoryRepository, times(1)).findById(EXISTING_ID);
-        verify(categoryMapper, times(1)).toEntity(updateCategoryRequestDto);
-        verify(categoryRepository, times(1)).save(updatedCategory);
+        verify(categoryMapper, times(1)).updateCategory(updateCategoryRequestDto, category);
+        verify(categoryRepository, times(1)).save(category);
         verify(categoryMapper, times(1)).toDto(updatedCategory);
         verifyNoMoreInteractions(categoryRepository, categoryMapper);
     }
@@ -0,0 +1,64 @@
+package com.example.bookstore.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.bookstore.service.order.OrderPlacementQueue;
+import com.example.bookstore.service.order.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderPlacementQueueTest {
+    private static final int QUEUE_CAPACITY = 10;
+
+    @Mock
+    private OrderService orderService;
+
+    @Test
+    @DisplayName("Verify that stale PROCESSING orders are placed again, or failed if that throws")
+    void requeueStaleOrders_StaleOrders_CompletesOrFailsEach() throws InterruptedException {
+        Mockito.when(orderService.findStaleOrderIds(any(LocalDateTime.class), eq(QUEUE_CAPACITY)))
+                .thenReturn(List.of(1L, 2L));
+        Mockito.doNothing().when(orderService).completeOrder(1L);
+        Mockito.doThrow(new RuntimeException("Can`t place order"))
+                .when(orderService).completeOrder(2L);
+        OrderPlacementQueue orderPlacementQueue = getOrderPlacementQueue();
+
+        orderPlacementQueue.requeueStaleOrders();
+        orderPlacementQueue.shutdown();
+
+        verify(orderService, times(1)).completeOrder(1L);
+        verify(orderService, times(1)).completeOrder(2L);
+        verify(orderService, never()).failOrder(1L);
+        verify(orderService, times(1)).failOrder(2L);
+    }
+
+    @Test
+    @DisplayName("Verify that a stopped queue does not look for stale orders")
+    void requeueStaleOrders_Shutdown_DoesNothing() throws InterruptedException {
+        OrderPlacementQueue orderPlacementQueue = getOrderPlacementQueue();
+        orderPlacementQueue.shutdown();
+
+        orderPlacementQueue.requeueStaleOrders();
+
+        verify(orderService, never()).findStaleOrderIds(any(), anyInt());
+    }
+
+    private OrderPlacementQueue getOrderPlacementQueue() {
+        return new OrderPlacementQueue(orderService, new SimpleMeterRegistry(), 1,
+                QUEUE_CAPACITY, Duration.ofSeconds(10), Duration.ofMinutes(10));
+    }
+}
@@ -18,6 +18,7 @@ import com.example.bookstore.model.Book;
 import com.example.bookstore.model.CartItem;
 import com.example.bookstore.model.ShoppingCart;
 import com.example.bookstore.model.User;
+import com.example.bookstore.repository.book.BookRepository;
 import com.example.bookstore.repository.cartitem.CartItemRepository;
 import com.example.bookstore.repository.shoppingcart.ShoppingCartRepository;
 import com.example.bookstore.service.shoppingcart.impl.ShoppingCartServiceImpl;
@@ -42,6 +43,8 @@ public class ShoppingCartServiceTest {
     @Mock
     private CartItemRepository cartItemRepository;
     @Mock
+    private BookRepository bookRepository;
+    @Mock
     private ShoppingCartMapper shoppingCartMapper;
     @Mock
     private CartItemMapper cartItemMapper;
@@ -110,6 +113,8 @@ public class ShoppingCartServiceTest {
         Mockito.when(shoppingCartRepository.findShoppingCartByUserId(EXISTING_ID))
                 .thenReturn(Optional.of(shoppingCart));
         Mockito.when(cartItemMapper.toEntity(createCartItemRequestDto)).thenReturn(cartItem);
+        Mockito.when(bookRepository.getReferenceById(createCartItemRequestDto.getBookId()))
+                .thenReturn(cartItem.getBook());
         cartItem.setShoppingCart(shoppingCart);
         shoppingCart.setCartItems(Set.of(cartItem));
         Mockito.when(cartItemRepository.save(cartItem)).thenReturn(cartItem);
@@ -0,0 +1,204 @@
+package com.example.bookstore.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import com.example.bookstore.exception.OutOfStockException;
+import com.example.bookstore.repository.book.BookRepository;
+import com.example.bookstore.service.book.StockAllocator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class StockAllocatorTest {
+    private static final Long BOOK_ID = 1L;
+    private static final int CHUNK_SIZE = 20;
+    private static final int STRIPES = 8;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Verify that a disabled allocator takes stock from the row in the order")
+    void reserve_Disabled_TakesFromRow() {
+        StockAllocator stockAllocator = getStockAllocator(false);
+        Mockito.when(bookRepository.takeStock(BOOK_ID, 3)).thenReturn(true);
+
+        stockAllocator.reserve(BOOK_ID, 3);
+
+        assertThrows(OutOfStockException.class, () -> stockAllocator.reserve(BOOK_ID, 4));
+    }
+
+    @Test
+    @DisplayName("Verify that empty stripes are refilled on the refill thread, not the order's")
+    void reserve_EmptyStripes_TakesFromRowAndRefillsInBackground() throws Exception {
+        AtomicReference<String> refillThread = new AtomicReference<>();
+        CountDownLatch reserved = new CountDownLatch(1);
+        Mockito.when(bookRepository.takeStock(BOOK_ID, 2)).thenReturn(true);
+        Mockito.when(bookRepository.takeStock(BOOK_ID, CHUNK_SIZE)).thenAnswer(invocation -> {
+            refillThread.set(Thread.currentThread().getName());
+            reserved.await();
+            return true;
+        });
+        StockAllocator stockAllocator = getStockAllocator(true);
+
+        stockAllocator.reserve(BOOK_ID, 2);
+        reserved.countDown();
+        awaitRefills(stockAllocator);
+        for (int i = 0; i < 5; i++) {
+            stockAllocator.reserve(BOOK_ID, 1);
+        }
+        stockAllocator.returnUnsoldStock();
+
+        assertThat(refillThread.get()).startsWith("stock-refill-");
+        verify(bookRepository, times(1)).takeStock(BOOK_ID, 2);
+        verify(bookRepository, times(1)).takeStock(BOOK_ID, CHUNK_SIZE);
+        verify(bookRepository, times(1)).returnStock(BOOK_ID, CHUNK_SIZE - 5);
+        verifyNoMoreInteractions(bookRepository);
+    }
+
+    @Test
+    @DisplayName("Verify that units spread over stripes are pooled before the row is asked")
+    void reserve_RowExhausted_UsesHeldUnitsThenThrows() throws Exception {
+        Mockito.when(bookRepository.takeStock(eq(BOOK_ID), anyInt())).thenReturn(false);
+        Mockito.when(bookRepository.takeStock(BOOK_ID, 2)).thenReturn(true);
+        StockAllocator stockAllocator = getStockAllocator(true);
+        fillStripes(stockAllocator, 2);
+
+        stockAllocator.reserve(BOOK_ID, 7);
+        assertThrows(OutOfStockException.class, () -> stockAllocator.reserve(BOOK_ID, 14));
+        awaitRefills(stockAllocator);
+        stockAllocator.returnUnsoldStock();
+
+        verify(bookRepository, times(1)).returnStock(BOOK_ID, CHUNK_SIZE - 7);
+    }
+
+    @Test
+    @DisplayName("Verify that units of a rolled back order go back to the stripes")
+    void reserve_RolledBackOrder_ReturnsUnits() throws Exception {
+        Mockito.when(bookRepository.takeStock(BOOK_ID, 1)).thenReturn(true);
+        StockAllocator stockAllocator = getStockAllocator(true);
+        fillStripes(stockAllocator, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        stockAllocator.reserve(BOOK_ID, 3);
+        stockAllocator.reserve(BOOK_ID, 4);
+        List<TransactionSynchronization> synchronizations =
+                TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        stockAllocator.returnUnsoldStock();
+
+        verify(bookRepository, times(1)).returnStock(BOOK_ID, CHUNK_SIZE - 3);
+    }
+
+    @Test
+    @DisplayName("Verify that concurrent buyers never sell more units than the row had")
+    void reserve_ConcurrentBuyers_NeitherOversellsNorLosesUnits() throws Exception {
+        StockAllocator stockAllocator = getStockAllocator(true);
+        AtomicInteger row = new AtomicInteger(101);
+        Mockito.when(bookRepository.takeStock(eq(BOOK_ID), anyInt())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            int available = row.get();
+            while (available >= quantity) {
+                if (row.compareAndSet(available, available - quantity)) {
+                    return true;
+                }
+                available = row.get();
+            }
+            return false;
+        });
+        Mockito.lenient().doAnswer(invocation -> row.addAndGet(invocation.getArgument(1)))
+                .when(bookRepository).returnStock(eq(BOOK_ID), anyInt());
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService buyers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(buyers.submit(() -> {
+                    for (int j = 0; j < 40; j++) {
+                        try {
+                            stockAllocator.reserve(BOOK_ID, 1 + j % 3);
+                            sold.addAndGet(1 + j % 3);
+                        } catch (OutOfStockException e) {
+                            // sold out for this buyer, keep trying smaller orders
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            buyers.shutdown();
+        }
+        stockAllocator.returnUnsoldStock();
+
+        assertThat(sold.get() + row.get()).isEqualTo(101);
+        assertThat(sold.get()).isPositive();
+    }
+
+    private StockAllocator getStockAllocator(boolean enabled) {
+        return new StockAllocator(bookRepository, transactionManager, enabled, CHUNK_SIZE, STRIPES);
+    }
+
+    /**
+     * Reserves from the row while the stripes are empty and lets the refill
+     * that this requests put one chunk into them; later refills find the row
+     * empty. The refill is held back until the reservation has returned, as
+     * the reservation would otherwise pool the units of a refill that
+     * finishes first.
+     */
+    private void fillStripes(StockAllocator stockAllocator, int quantity) throws Exception {
+        CountDownLatch reserved = new CountDownLatch(1);
+        AtomicInteger refills = new AtomicInteger();
+        Mockito.when(bookRepository.takeStock(BOOK_ID, CHUNK_SIZE)).thenAnswer(invocation -> {
+            reserved.await();
+            return refills.getAndIncrement() == 0;
+        });
+        stockAllocator.reserve(BOOK_ID, quantity);
+        reserved.countDown();
+        awaitRefills(stockAllocator);
+    }
+
+    /**
+     * The refill thread runs tasks in order, so once a marker task has run,
+     * every refill requested before it has finished.
+     */
+    private void awaitRefills(StockAllocator stockAllocator) throws Exception {
+        ExecutorService refillExecutor =
+                (ExecutorService) ReflectionTestUtils.getField(stockAllocator, "refillExecutor");
+        refillExecutor.submit(() -> { }).get();
+    }
+}